@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.benchmarks;
+
+import com.github.moaxcp.recmd5.MD5Batch;
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares MD5Batch with hashing the same messages one after another.
+ *
+ * @author john
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BatchBenchmark {
+
+    private static final int MESSAGES = 64;
+
+    @Param({"64", "1024", "65536"})
+    public int messageSize;
+
+    private byte[][] inputs;
+    private byte[][] outputs;
+
+    @Setup
+    public void setUp() {
+        inputs = new byte[MESSAGES][];
+        outputs = new byte[MESSAGES][16];
+        for (int i = 0; i < MESSAGES; i++) {
+            inputs[i] = Digests.randomBytes(messageSize);
+        }
+    }
+
+    @Benchmark
+    public byte[][] batch() {
+        MD5Batch.hash(inputs, outputs);
+        return outputs;
+    }
+
+    @Benchmark
+    public byte[][] sequential() {
+        MD5MessageDigest digest = new MD5MessageDigest();
+        for (int i = 0; i < MESSAGES; i++) {
+            digest.reset();
+            digest.update(inputs[i]);
+            outputs[i] = digest.digest();
+        }
+        return outputs;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.benchmarks;
+
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import com.github.moaxcp.recmd5.MD5State;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what recoverability costs while hashing. hashWithCheckpoints hashes
+ * 64 MiB and performs the checkpoint cycle every checkpointInterval bytes so
+ * the result can be compared with UpdateBenchmark at the same size. The cost
+ * of a single cycle is measured by StateCopyBenchmark.
+ *
+ * @author john
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CheckpointBenchmark {
+
+    private static final int UPDATE_SIZE = 8192;
+    private static final long INPUT_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * "getState" only takes the snapshot, "restore" also continues hashing
+     * from a new digest created from the snapshot.
+     */
+    @Param({"getState", "restore"})
+    public String cycle;
+
+    @Param({"8192", "1048576"})
+    public long checkpointInterval;
+
+    private byte[] chunk;
+
+    @Setup
+    public void setUp() {
+        chunk = Digests.randomBytes(UPDATE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] hashWithCheckpoints() {
+        MD5MessageDigest md5 = new MD5MessageDigest();
+        boolean restore = "restore".equals(cycle);
+        long sinceCheckpoint = 0;
+        for (long done = 0; done < INPUT_SIZE; done += UPDATE_SIZE) {
+            md5.update(chunk, 0, UPDATE_SIZE);
+            sinceCheckpoint += UPDATE_SIZE;
+            if (sinceCheckpoint >= checkpointInterval) {
+                MD5State checkpoint = md5.getState();
+                if (restore) {
+                    md5 = new MD5MessageDigest(checkpoint);
+                }
+                sinceCheckpoint = 0;
+            }
+        }
+        return md5.digest();
+    }
+}
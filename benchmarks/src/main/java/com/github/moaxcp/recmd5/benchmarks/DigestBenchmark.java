@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.benchmarks;
+
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of asking for the running digest while hashing. The input
+ * is fed in 8 KiB updates and an intermediate digest is taken every
+ * digestInterval bytes. A digestInterval of 0 only calls digest at the end.
+ * Repeated digests without new input are measured by RepeatedDigestBenchmark.
+ *
+ * @author john
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DigestBenchmark {
+
+    private static final int UPDATE_SIZE = 8192;
+
+    @Param({Digests.RECMD5, Digests.JDK})
+    public String implementation;
+
+    @Param({"1048576", "67108864"})
+    public long inputSize;
+
+    @Param({"0", "8192", "65536", "1048576"})
+    public long digestInterval;
+
+    private MessageDigest digest;
+    private byte[] chunk;
+
+    @Setup
+    public void setUp() {
+        digest = Digests.create(implementation);
+        chunk = Digests.randomBytes(UPDATE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] hash(Blackhole blackhole) {
+        digest.reset();
+        long sinceDigest = 0;
+        for (long done = 0; done < inputSize; done += UPDATE_SIZE) {
+            digest.update(chunk, 0, (int) Math.min(UPDATE_SIZE, inputSize - done));
+            sinceDigest += UPDATE_SIZE;
+            if (digestInterval > 0 && sinceDigest >= digestInterval) {
+                blackhole.consume(Digests.intermediate(digest));
+                sinceDigest = 0;
+            }
+        }
+        return digest.digest();
+    }
+}
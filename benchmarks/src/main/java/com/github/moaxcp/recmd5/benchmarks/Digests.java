@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.benchmarks;
+
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+/**
+ * Shared helpers for the benchmarks. Each benchmark takes an implementation
+ * parameter of "recmd5" for MD5MessageDigest or "jdk" for the MD5 returned by
+ * MessageDigest.getInstance("MD5").
+ *
+ * @author john
+ */
+final class Digests {
+
+    static final String RECMD5 = "recmd5";
+    static final String JDK = "jdk";
+
+    private Digests() {
+    }
+
+    static MessageDigest create(String implementation) {
+        if (RECMD5.equals(implementation)) {
+            return new MD5MessageDigest();
+        }
+        if (JDK.equals(implementation)) {
+            try {
+                return MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("MD5 is not available from the JDK", ex);
+            }
+        }
+        throw new IllegalArgumentException("unknown implementation " + implementation);
+    }
+
+    /**
+     * returns the digest of everything passed to digest so far without ending
+     * the computation. MD5MessageDigest supports this directly, the JDK digest
+     * has to be cloned because digest() resets it.
+     */
+    static byte[] intermediate(MessageDigest digest) {
+        if (digest instanceof MD5MessageDigest) {
+            return digest.digest();
+        }
+        try {
+            return ((MessageDigest) digest.clone()).digest();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("digest can not be cloned", ex);
+        }
+    }
+
+    /**
+     * feeds length bytes to digest by repeating chunk. When chunk has a length
+     * of 1 the single byte update method is used.
+     */
+    static void feed(MessageDigest digest, byte[] chunk, long length) {
+        if (chunk.length == 1) {
+            byte b = chunk[0];
+            for (long i = 0; i < length; i++) {
+                digest.update(b);
+            }
+            return;
+        }
+        long remaining = length;
+        while (remaining > 0) {
+            int n = (int) Math.min(chunk.length, remaining);
+            digest.update(chunk, 0, n);
+            remaining -= n;
+        }
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
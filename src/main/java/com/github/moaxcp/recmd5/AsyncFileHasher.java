@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes files while the next reads are already in flight. Hashing is
+ * sequential, so reading and hashing on one thread leaves the disk idle while
+ * a block is transformed and the CPU idle while a block is read. Each file is
+ * read through an AsynchronousFileChannel into a ring of direct buffers: while
+ * the hashing thread feeds one buffer to an MD5MessageDigest, reads for the
+ * other buffers of the ring are pending.
+ * <p>
+ * Buffers are pooled and reused between files. Hashing runs on threads owned
+ * by the hasher, close stops them.
+ *
+ * @author john
+ */
+public final class AsyncFileHasher implements Closeable {
+
+    /**
+     * the default size of each buffer in the ring, 1 MiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * the default number of buffers in the ring of each file.
+     */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    private final int bufferSize;
+    private final int bufferCount;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * creates a hasher with one hashing thread, DEFAULT_BUFFER_COUNT buffers
+     * of DEFAULT_BUFFER_SIZE bytes.
+     */
+    public AsyncFileHasher() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT, 1);
+    }
+
+    /**
+     * creates a hasher.
+     *
+     * @param bufferSize the size of each read
+     * @param bufferCount the number of buffers per file, one is being hashed
+     * while the others are read
+     * @param threads the number of files hashed at the same time
+     */
+    public AsyncFileHasher(int bufferSize, int bufferCount, int threads) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+        }
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("bufferCount must be at least 2 but was " + bufferCount);
+        }
+        this.bufferSize = bufferSize;
+        this.bufferCount = bufferCount;
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "recmd5-async-hasher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @param file the file to hash
+     * @return the md5 of file when it has been read
+     */
+    public CompletableFuture<byte[]> hash(Path file) {
+        return hash(file, 0, null);
+    }
+
+    /**
+     * @param file the file to hash
+     * @param checkpointInterval bytes between checkpoints, 0 for none
+     * @param listener receives checkpoints on the hashing thread
+     * @return the md5 of file when it has been read
+     */
+    public CompletableFuture<byte[]> hash(Path file, long checkpointInterval, CheckpointListener listener) {
+        return submit(file, new MD5MessageDigest(), 0, checkpointInterval, listener);
+    }
+
+    /**
+     * continues hashing file from a checkpoint.
+     *
+     * @param file the file to hash
+     * @param state the state saved at offset
+     * @param offset the position in file the state was saved at
+     * @param checkpointInterval bytes between checkpoints, 0 for none
+     * @param listener receives checkpoints on the hashing thread
+     * @return the md5 of file when it has been read
+     */
+    public CompletableFuture<byte[]> resume(Path file, MD5State state, long offset, long checkpointInterval, CheckpointListener listener) {
+        return submit(file, new MD5MessageDigest(state), offset, checkpointInterval, listener);
+    }
+
+    private CompletableFuture<byte[]> submit(final Path file, MD5MessageDigest digest, long offset, long checkpointInterval, CheckpointListener listener) {
+        final Checkpointer checkpointer = new Checkpointer(digest, offset, checkpointInterval, 0, listener);
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!result.isDone()) {
+                        result.complete(hash(file, checkpointer, result));
+                    }
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+        return result;
+    }
+
+    private byte[] hash(Path file, Checkpointer checkpointer, CompletableFuture<byte[]> result) throws IOException {
+        ByteBuffer[] ring = new ByteBuffer[bufferCount];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Future<Integer>[] reads = new Future[bufferCount];
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = checkpointer.getOffset();
+            if (position > size) {
+                throw new IllegalArgumentException("offset " + position + " is past the end of " + file);
+            }
+            try {
+                long nextRead = position;
+                for (int i = 0; i < bufferCount && nextRead < size; i++) {
+                    ring[i] = take();
+                    reads[i] = channel.read(ring[i], nextRead);
+                    nextRead += bufferSize;
+                }
+                for (int slot = 0; position < size && !result.isDone(); slot = (slot + 1) % bufferCount) {
+                    ByteBuffer buffer = ring[slot];
+                    int expected = (int) Math.min(bufferSize, size - position);
+                    await(reads[slot]);
+                    reads[slot] = null;
+                    while (buffer.position() < expected) {
+                        if (await(channel.read(buffer, position + buffer.position())) < 0) {
+                            throw new EOFException(file + " ended at " + (position + buffer.position()));
+                        }
+                    }
+                    buffer.flip();
+                    checkpointer.getDigest().update(buffer);
+                    position += expected;
+                    checkpointer.advance(expected);
+                    if (nextRead < size) {
+                        buffer.clear();
+                        reads[slot] = channel.read(buffer, nextRead);
+                        nextRead += bufferSize;
+                    }
+                }
+            } finally {
+                for (int i = 0; i < bufferCount; i++) {
+                    if (ring[i] != null && (reads[i] == null || settle(reads[i]))) {
+                        pool.offer(ring[i]);
+                    }
+                }
+            }
+            checkpointer.finish();
+            return checkpointer.getDigest().digest();
+        }
+    }
+
+    private ByteBuffer take() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static int await(Future<Integer> read) throws IOException {
+        try {
+            return read.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reading");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * waits for a read that is no longer needed.
+     *
+     * @return true if the read is finished and its buffer can be reused.
+     */
+    private static boolean settle(Future<Integer> read) {
+        try {
+            read.get();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * stops the hashing threads. Files that are being hashed are finished.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sparse index of the states of a file, one every interval bytes. The md5 of
+ * any prefix of the file is computed from the nearest state at or before the
+ * end of the prefix, so at most interval bytes are read instead of the whole
+ * prefix. The same lookup rewinds a hash in progress to an earlier offset, as
+ * needed when a ranged transfer resumes before the current position.
+ * <p>
+ * The index is a CheckpointListener and can be filled by MappedFileHasher or
+ * the recoverable streams while a file is hashed. States are keyed by their
+ * count. write stores the index in a sidecar file next to the data file; the
+ * index describes the content the states were taken from and is only valid as
+ * long as that content does not change. The sidecar records the file key, size
+ * and modification time of the data file, and read refuses an index whose
+ * data file no longer matches them.
+ * <p>
+ * The sidecar starts with a 4 byte magic number, a version byte and the
+ * interval. The file key as a length and UTF-8 bytes, the size and the
+ * modification time in nanoseconds of the data file follow, then the number
+ * of states and each state in the format of MD5State.writeTo.
+ *
+ * @author john
+ */
+public final class CheckpointIndex implements CheckpointListener {
+
+    private static final int MAGIC = 0x524d4449;
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long interval;
+    private final TreeMap<Long, MD5State> states = new TreeMap<Long, MD5State>();
+
+    /**
+     * creates an empty index.
+     *
+     * @param interval the number of bytes between states
+     */
+    public CheckpointIndex(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive but was " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * hashes file and indexes a state every interval bytes.
+     *
+     * @param file the file to index
+     * @param interval the number of bytes between states
+     * @return the index
+     * @throws IOException if the file could not be read
+     */
+    public static CheckpointIndex build(Path file, long interval) throws IOException {
+        CheckpointIndex index = new CheckpointIndex(interval);
+        new MappedFileHasher(MappedFileHasher.DEFAULT_WINDOW_SIZE, interval, index).hash(file);
+        return index;
+    }
+
+    /**
+     * @param file a data file
+     * @return the sidecar path for the index of file
+     */
+    public static Path sidecar(Path file) {
+        return file.resolveSibling(file.getFileName() + ".md5idx");
+    }
+
+    /**
+     * @return the number of bytes between states
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the number of indexed states
+     */
+    public synchronized int size() {
+        return states.size();
+    }
+
+    /**
+     * @return the count of the last indexed state
+     */
+    public synchronized long getLength() {
+        return states.isEmpty() ? 0 : states.lastKey();
+    }
+
+    /**
+     * adds state to the index. offset is not used, states are keyed by their
+     * count.
+     */
+    @Override
+    public synchronized void checkpoint(MD5State state, long offset) {
+        states.put(state.getCount(), state);
+    }
+
+    /**
+     * @param length a prefix length
+     * @return a copy of the indexed state with the largest count not greater
+     * than length, or the initial state if there is none
+     */
+    public synchronized MD5State floor(long length) {
+        Map.Entry<Long, MD5State> entry = states.floorEntry(length);
+        return entry == null ? new MD5State() : MD5State.copy(entry.getValue());
+    }
+
+    /**
+     * removes the states past length, for instance because the content after
+     * length is about to be written again.
+     *
+     * @param length the prefix length to keep states for
+     */
+    public synchronized void truncate(long length) {
+        states.tailMap(length, false).clear();
+    }
+
+    /**
+     * computes the md5 of the first length bytes of file, reading at most
+     * interval bytes when the index covers length.
+     *
+     * @param file the indexed file
+     * @param length the length of the prefix
+     * @return the md5 of the prefix
+     * @throws IOException if the file could not be read or is shorter than
+     * length
+     */
+    public byte[] prefixDigest(Path file, long length) throws IOException {
+        return seek(file, length).digest();
+    }
+
+    /**
+     * rewinds a hash of file to offset. States past offset are removed, the
+     * returned digest is at offset and hashing continues from there.
+     *
+     * @param file the indexed file
+     * @param offset the offset to continue from
+     * @return a digest of the first offset bytes of file
+     * @throws IOException if the file could not be read or is shorter than
+     * offset
+     */
+    public MD5MessageDigest rewind(Path file, long offset) throws IOException {
+        MD5MessageDigest digest = seek(file, offset);
+        truncate(offset);
+        return digest;
+    }
+
+    private MD5MessageDigest seek(Path file, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative but was " + length);
+        }
+        MD5State start = floor(length);
+        MD5MessageDigest digest = new MD5MessageDigest(start);
+        long position = start.getCount();
+        if (position == length) {
+            return digest;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, length - position));
+            while (position < length) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), length - position));
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    throw new EOFException(file + " is shorter than " + length + " bytes");
+                }
+                digest.update(buffer.array(), 0, n);
+                position += n;
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * writes the index to sidecar, replacing it atomically, together with the
+     * identity of dataFile. Write after the states were taken and before
+     * dataFile changes again.
+     *
+     * @param sidecar the sidecar file
+     * @param dataFile the indexed file
+     * @throws IOException if dataFile could not be read or the sidecar could
+     * not be written
+     */
+    public void write(Path sidecar, Path dataFile) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(dataFile, BasicFileAttributes.class);
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(interval);
+            byte[] fileKey = fileKey(attributes).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(fileKey.length);
+            out.write(fileKey);
+            out.writeLong(attributes.size());
+            out.writeLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+            synchronized (this) {
+                out.writeInt(states.size());
+                ByteBuffer encoded = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+                for (MD5State state : states.values()) {
+                    encoded.clear();
+                    state.writeTo(encoded);
+                    out.write(encoded.array(), 0, encoded.position());
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        CheckpointJournal.forceDirectory(sidecar);
+    }
+
+    /**
+     * reads an index written by write and checks that dataFile is still the
+     * file it was written for.
+     *
+     * @param sidecar the sidecar file
+     * @param dataFile the indexed file
+     * @return the index
+     * @throws IOException if a file could not be read, the sidecar is not a
+     * valid index or dataFile has a different file key, size or modification
+     * time than when the index was written
+     */
+    public static CheckpointIndex read(Path sidecar, Path dataFile) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(dataFile, BasicFileAttributes.class);
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(sidecar));
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException(sidecar + " is not a checkpoint index");
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IOException(sidecar + " has unknown checkpoint index version " + version);
+            }
+            CheckpointIndex index = new CheckpointIndex(in.getLong());
+            int keyLength = in.getInt();
+            if (keyLength < 0 || keyLength > in.remaining()) {
+                throw new EOFException(sidecar + " is truncated");
+            }
+            byte[] fileKey = new byte[keyLength];
+            in.get(fileKey);
+            long size = in.getLong();
+            long modified = in.getLong();
+            if (!new String(fileKey, StandardCharsets.UTF_8).equals(fileKey(attributes)) || size != attributes.size()
+                    || modified != attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)) {
+                throw new IOException(sidecar + " was written for a different version of " + dataFile);
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                MD5State state = MD5State.readFrom(in);
+                index.states.put(state.getCount(), state);
+            }
+            return index;
+        } catch (BufferUnderflowException ex) {
+            throw new EOFException(sidecar + " is truncated");
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(sidecar + " is corrupt", ex);
+        }
+    }
+
+    private static String fileKey(BasicFileAttributes attributes) {
+        return attributes.fileKey() == null ? "" : attributes.fileKey().toString();
+    }
+}
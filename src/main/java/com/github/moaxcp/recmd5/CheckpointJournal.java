@@ -0,0 +1,521 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of MD5State checkpoints for many concurrent sessions.
+ * <p>
+ * append returns once the checkpoint is on disk. Appends from different
+ * threads are grouped: while one thread writes and forces a batch, the
+ * checkpoints of other threads collect in memory and are written by the next
+ * force. Many sessions checkpointing at once therefore share a few fsync
+ * calls instead of paying for one each.
+ * <p>
+ * The journal keeps the latest state of each session in memory. When the file
+ * holds compactThreshold records and more than twice the number of live
+ * sessions it is rewritten with only the latest state per session. Opening a
+ * journal replays the file to rebuild the session map. A torn record at the
+ * end of the file, left by a crash during a write, is discarded.
+ * <p>
+ * A checkpoint can carry a few bytes of data chosen by the caller, such as a
+ * check that the input of the session did not change. The data is written in
+ * the same record as the state, so both are durable together.
+ * <p>
+ * The file starts with a 4 byte magic number and a version byte. Each record
+ * is the length and CRC32 of its body followed by the body: a type byte, the
+ * session id as modified UTF-8 and, for checkpoints, the state in the format
+ * of MD5State.writeTo. A checkpoint with data has its own type and stores the
+ * length of the data as an unsigned short and the data before the state.
+ *
+ * @author john
+ */
+public final class CheckpointJournal implements Closeable {
+
+    /**
+     * the number of records written before compaction is considered.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 100000;
+
+    private static final int MAGIC = 0x524d444a;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final byte CHECKPOINT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CHECKPOINT_DATA = 3;
+    private static final int MAX_DATA_SIZE = 65535;
+
+    private final Path file;
+    private final int compactThreshold;
+    private final Object lock = new Object();
+    private final Map<String, MD5State> states = new HashMap<String, MD5State>();
+    private final Map<String, byte[]> data = new HashMap<String, byte[]>();
+
+    private FileChannel channel;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private long records;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * opens or creates a journal with DEFAULT_COMPACT_THRESHOLD.
+     *
+     * @param file the journal file
+     * @throws IOException if the file could not be read or created
+     */
+    public CheckpointJournal(Path file) throws IOException {
+        this(file, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * opens or creates a journal and recovers the latest state of every
+     * session from it.
+     *
+     * @param file the journal file
+     * @param compactThreshold the number of records in the file before it is
+     * compacted
+     * @throws IOException if the file could not be read or created
+     */
+    public CheckpointJournal(Path file, int compactThreshold) throws IOException {
+        if (compactThreshold <= 0) {
+            throw new IllegalArgumentException("compactThreshold must be positive but was " + compactThreshold);
+        }
+        this.file = file;
+        this.compactThreshold = compactThreshold;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).put(VERSION).flip();
+            writeFully(channel, header);
+            channel.force(true);
+        } else {
+            long end = recover();
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * @return the path of the journal file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return a snapshot of the latest state of every session.
+     */
+    public Map<String, MD5State> getStates() {
+        synchronized (lock) {
+            return Collections.unmodifiableMap(new HashMap<String, MD5State>(states));
+        }
+    }
+
+    /**
+     * @param sessionId the session
+     * @return the latest state of the session or null if there is none.
+     */
+    public MD5State getState(String sessionId) {
+        synchronized (lock) {
+            return states.get(sessionId);
+        }
+    }
+
+    /**
+     * @param sessionId the session
+     * @return a copy of the data stored with the latest state of the session
+     * or null if there is none.
+     */
+    public byte[] getData(String sessionId) {
+        synchronized (lock) {
+            byte[] sessionData = data.get(sessionId);
+            return sessionData == null ? null : sessionData.clone();
+        }
+    }
+
+    /**
+     * records state as the latest checkpoint of sessionId and waits until it
+     * is durable. The journal keeps a reference to state, which is safe for
+     * states returned by MD5MessageDigest.getState. Data stored with an
+     * earlier checkpoint of the session is dropped.
+     *
+     * @param sessionId the session the state belongs to
+     * @param state the checkpoint
+     * @throws IOException if the journal could not be written. The journal
+     * can not be used after a failed write.
+     */
+    public void append(String sessionId, MD5State state) throws IOException {
+        append(sessionId, state, null);
+    }
+
+    /**
+     * records state and sessionData as the latest checkpoint of sessionId and
+     * waits until both are durable.
+     *
+     * @param sessionId the session the state belongs to
+     * @param state the checkpoint
+     * @param sessionData at most 65535 bytes kept with state, it is copied.
+     * null stores no data.
+     * @throws IOException if the journal could not be written. The journal
+     * can not be used after a failed write.
+     */
+    public void append(String sessionId, MD5State state, byte[] sessionData) throws IOException {
+        if (sessionData != null && sessionData.length > MAX_DATA_SIZE) {
+            throw new IllegalArgumentException("data must be at most " + MAX_DATA_SIZE + " bytes but was " + sessionData.length);
+        }
+        byte[] copy = sessionData == null ? null : sessionData.clone();
+        byte[] record = record(copy == null ? CHECKPOINT : CHECKPOINT_DATA, sessionId, payload(state, copy));
+        long sequence;
+        synchronized (lock) {
+            checkUsable();
+            pending.write(record, 0, record.length);
+            sequence = ++appended;
+            states.put(sessionId, state);
+            if (copy == null) {
+                data.remove(sessionId);
+            } else {
+                data.put(sessionId, copy);
+            }
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * removes a finished session from the journal and waits until the removal
+     * is durable.
+     *
+     * @param sessionId the session to remove
+     * @throws IOException if the journal could not be written
+     */
+    public void remove(String sessionId) throws IOException {
+        byte[] record = record(REMOVE, sessionId, new byte[0]);
+        long sequence;
+        synchronized (lock) {
+            checkUsable();
+            if (states.remove(sessionId) == null) {
+                return;
+            }
+            data.remove(sessionId);
+            pending.write(record, 0, record.length);
+            sequence = ++appended;
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * rewrites the journal so it only holds the latest state of each session.
+     * Appends may continue while the new file is written.
+     *
+     * @throws IOException if the new file could not be written
+     */
+    public void compact() throws IOException {
+        Map<String, MD5State> snapshot;
+        Map<String, byte[]> dataSnapshot;
+        long sequence;
+        synchronized (lock) {
+            awaitIdle();
+            checkUsable();
+            flushing = true;
+            snapshot = new HashMap<String, MD5State>(states);
+            dataSnapshot = new HashMap<String, byte[]>(data);
+            sequence = appended;
+            pending.reset();
+        }
+        IOException error = null;
+        try {
+            rewrite(snapshot, dataSnapshot);
+        } catch (IOException ex) {
+            error = ex;
+        }
+        finishFlush(sequence, snapshot.size(), error, true);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * closes the journal after writing any pending checkpoints.
+     *
+     * @throws IOException if pending checkpoints could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        long sequence;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            sequence = appended;
+        }
+        try {
+            if (failure == null) {
+                awaitDurable(sequence);
+            }
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        while (true) {
+            byte[] batch;
+            long batchSequence;
+            long batchRecords;
+            synchronized (lock) {
+                awaitIdle();
+                if (durable >= sequence) {
+                    return;
+                }
+                checkUsable();
+                flushing = true;
+                batch = pending.toByteArray();
+                pending.reset();
+                batchSequence = appended;
+                batchRecords = appended - durable;
+            }
+            IOException error = null;
+            try {
+                writeFully(channel, ByteBuffer.wrap(batch));
+                channel.force(false);
+            } catch (IOException ex) {
+                error = ex;
+            }
+            boolean compact = finishFlush(batchSequence, batchRecords, error, false);
+            if (error != null) {
+                throw error;
+            }
+            if (compact) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * waits while another thread writes. Must hold lock.
+     */
+    private void awaitIdle() throws InterruptedIOException {
+        while (flushing) {
+            try {
+                lock.wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for checkpoint journal");
+            }
+        }
+    }
+
+    private boolean finishFlush(long sequence, long written, IOException error, boolean replaced) {
+        synchronized (lock) {
+            flushing = false;
+            if (error == null) {
+                durable = Math.max(durable, sequence);
+                records = replaced ? written : records + written;
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+            return error == null && !replaced && records >= compactThreshold && records > 2L * states.size();
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (closed) {
+            throw new IOException("checkpoint journal " + file + " is closed");
+        }
+        if (failure != null) {
+            throw new IOException("checkpoint journal " + file + " failed", failure);
+        }
+    }
+
+    private void rewrite(Map<String, MD5State> snapshot, Map<String, byte[]> dataSnapshot) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            for (Map.Entry<String, MD5State> entry : snapshot.entrySet()) {
+                byte[] sessionData = dataSnapshot.get(entry.getKey());
+                out.write(record(sessionData == null ? CHECKPOINT : CHECKPOINT_DATA, entry.getKey(), payload(entry.getValue(), sessionData)));
+            }
+        }
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(file);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    /**
+     * replays the journal into states.
+     *
+     * @return the offset of the end of the last complete record.
+     */
+    private long recover() throws IOException {
+        channel.position(0);
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(channel), 65536);
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException(file + " is not a checkpoint journal");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException(file + " has unknown checkpoint journal version " + version);
+        }
+        long end = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (true) {
+            byte[] body;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 3 || length > 65536 + 2 + MAX_DATA_SIZE + MD5State.MAX_ENCODED_SIZE) {
+                    break;
+                }
+                body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException ex) {
+                break;
+            }
+            apply(body);
+            records++;
+            end += 8 + body.length;
+        }
+        return end;
+    }
+
+    private void apply(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte type = in.readByte();
+        String sessionId = in.readUTF();
+        if (type == CHECKPOINT || type == CHECKPOINT_DATA) {
+            byte[] sessionData = null;
+            if (type == CHECKPOINT_DATA) {
+                sessionData = new byte[in.readUnsignedShort()];
+                in.readFully(sessionData);
+            }
+            int offset = body.length - in.available();
+            states.put(sessionId, MD5State.readFrom(ByteBuffer.wrap(body, offset, body.length - offset)));
+            if (sessionData == null) {
+                data.remove(sessionId);
+            } else {
+                data.put(sessionId, sessionData);
+            }
+        } else if (type == REMOVE) {
+            states.remove(sessionId);
+            data.remove(sessionId);
+        } else {
+            throw new IOException(file + " has unknown record type " + type);
+        }
+    }
+
+    /**
+     * @return the length and bytes of sessionData, if any, followed by state
+     * in the format of MD5State.writeTo
+     */
+    private static byte[] payload(MD5State state, byte[] sessionData) {
+        ByteBuffer encoded = ByteBuffer.allocate((sessionData == null ? 0 : 2 + sessionData.length) + state.encodedSize());
+        if (sessionData != null) {
+            encoded.putShort((short) sessionData.length);
+            encoded.put(sessionData);
+        }
+        state.writeTo(encoded);
+        return encoded.array();
+    }
+
+    private static byte[] record(byte type, String sessionId, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + payload.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeUTF(sessionId);
+        out.write(payload);
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, record.length - 8);
+        ByteBuffer.wrap(record).putInt(record.length - 8).putInt((int) crc.getValue());
+        return record;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * forces the directory holding file so a rename is durable. Not every
+     * platform can open a directory, in which case this does nothing.
+     */
+    static void forceDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // directories can not be opened on some platforms
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the offset of a digest and tells a CheckpointListener about it every
+ * interval bytes or intervalMillis milliseconds, whichever comes first. Shared
+ * by the recoverable streams and channels.
+ *
+ * @author john
+ */
+final class Checkpointer {
+
+    private final MD5MessageDigest digest;
+    private final long interval;
+    private final long intervalNanos;
+    private final CheckpointListener listener;
+    private long offset;
+    private long lastOffset;
+    private long lastTime;
+
+    /**
+     * @param digest the digest being checkpointed
+     * @param offset the offset of the next byte given to digest
+     * @param interval bytes between checkpoints, 0 for no byte interval
+     * @param intervalMillis milliseconds between checkpoints, 0 for no time
+     * interval
+     * @param listener receives the checkpoints
+     */
+    Checkpointer(MD5MessageDigest digest, long offset, long interval, long intervalMillis, CheckpointListener listener) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative but was " + offset);
+        }
+        if (interval < 0 || intervalMillis < 0) {
+            throw new IllegalArgumentException("checkpoint intervals must not be negative");
+        }
+        if (listener == null && (interval > 0 || intervalMillis > 0)) {
+            throw new IllegalArgumentException("a listener is required when a checkpoint interval is set");
+        }
+        this.digest = digest;
+        this.offset = offset;
+        this.lastOffset = offset;
+        this.interval = interval;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.listener = listener;
+        if (intervalNanos > 0) {
+            lastTime = System.nanoTime();
+        }
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    MD5MessageDigest getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return true if a checkpoint is due after advance(n).
+     */
+    boolean isDue(long n) {
+        long next = offset + n;
+        if (next == lastOffset) {
+            return false;
+        }
+        return (interval > 0 && next - lastOffset >= interval)
+                || (intervalNanos > 0 && System.nanoTime() - lastTime >= intervalNanos);
+    }
+
+    /**
+     * records that n more bytes were given to the digest and checkpoints if an
+     * interval has passed.
+     */
+    void advance(long n) throws IOException {
+        advance(n, isDue(n));
+    }
+
+    /**
+     * records that n more bytes were given to the digest and checkpoints if
+     * due. For callers that already asked isDue(n) and must act on the same
+     * answer, since a time interval can pass between two calls.
+     */
+    void advance(long n, boolean due) throws IOException {
+        offset += n;
+        if (due) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * checkpoints if any bytes were hashed since the last checkpoint.
+     */
+    void finish() throws IOException {
+        if (listener != null && offset != lastOffset) {
+            checkpoint();
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        listener.checkpoint(digest.getState(), offset);
+        lastOffset = offset;
+        if (intervalNanos > 0) {
+            lastTime = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Remembers the md5 of files between runs. An entry is keyed by the absolute
+ * path and records the file key, size and modification time of the file
+ * together with its md5, the MD5State at the end of the file and a CRC32 of
+ * the last BOUNDARY_SIZE bytes.
+ * <p>
+ * A file with the same file key, size and modification time is a hit and is
+ * not read. A file that only grew is detected by comparing the CRC32 of the
+ * old boundary region; in that case hashing continues from the stored state
+ * over the appended bytes. This check only covers the end of the old content:
+ * a file rewritten before that region and then grown is taken for an
+ * appended one. Anything else hashes the whole file.
+ * <p>
+ * At most maxEntries files are kept, the least recently used is evicted
+ * first. The cache is loaded when it is created and written back by save or
+ * close, replacing the file atomically. The file starts with a 4 byte magic
+ * number, a version byte and the number of entries, followed by the entries
+ * from least to most recently used. An entry that can not be read ends
+ * loading, the entries before it are kept.
+ *
+ * @author john
+ */
+public final class FileHashCache implements Closeable {
+
+    /**
+     * the number of bytes at the end of a file checked before continuing a
+     * hash.
+     */
+    public static final int BOUNDARY_SIZE = 4096;
+
+    private static final int MAGIC = 0x524d4843;
+    private static final byte VERSION = 1;
+
+    private final Path file;
+    private final int maxEntries;
+    private final Map<String, Cached> entries;
+    private final Object saveLock = new Object();
+    private boolean dirty;
+    private long hits;
+    private long appendHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * opens a cache, loading file if it exists.
+     *
+     * @param file where the cache is stored
+     * @param maxEntries the number of files to remember
+     * @throws IOException if file exists but could not be read
+     */
+    public FileHashCache(Path file, int maxEntries) throws IOException {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+        this.file = file;
+        this.maxEntries = maxEntries;
+        entries = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                if (size() > FileHashCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * returns the md5 of path, reading as little of it as the cache allows.
+     *
+     * @param path the file to hash
+     * @return the md5 of path
+     * @throws IOException if path could not be read
+     */
+    public byte[] digest(Path path) throws IOException {
+        String key = path.toAbsolutePath().normalize().toString();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String fileKey = attributes.fileKey() == null ? "" : attributes.fileKey().toString();
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        Cached entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.fileKey.equals(fileKey) && entry.size == attributes.size() && entry.modified == modified) {
+                hits++;
+                return entry.digest.clone();
+            }
+        }
+
+        MD5MessageDigest digest = null;
+        long offset = 0;
+        if (entry != null && entry.fileKey.equals(fileKey) && entry.size < attributes.size()
+                && entry.boundary == boundary(path, entry.size)) {
+            digest = new MD5MessageDigest(entry.state);
+            offset = entry.size;
+        }
+        boolean appended = digest != null;
+        if (digest == null) {
+            digest = new MD5MessageDigest();
+        }
+        long size = new MappedFileHasher().update(path, digest, offset);
+        byte[] result = digest.digest();
+        Cached updated = new Cached(fileKey, size, modified, result, digest.getState(), boundary(path, size));
+        synchronized (this) {
+            if (appended) {
+                appendHits++;
+            } else {
+                misses++;
+            }
+            if (size == attributes.size()) {
+                entries.put(key, updated);
+                dirty = true;
+            }
+        }
+        return result.clone();
+    }
+
+    /**
+     * @return the CRC32 of the BOUNDARY_SIZE bytes before end
+     */
+    private static int boundary(Path path, long end) throws IOException {
+        int length = (int) Math.min(BOUNDARY_SIZE, end);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, end - length + buffer.position()) < 0) {
+                    return 0;
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * forgets path.
+     *
+     * @param path the file to forget
+     */
+    public synchronized void remove(Path path) {
+        if (entries.remove(path.toAbsolutePath().normalize().toString()) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return the number of files remembered
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of digests returned without reading the file
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of digests that continued from a stored state
+     */
+    public synchronized long getAppendHits() {
+        return appendHits;
+    }
+
+    /**
+     * @return the number of digests that hashed the whole file
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries evicted to stay within maxEntries
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * writes the cache to its file if it changed since it was loaded or last
+     * saved. Saves are serialized so an older snapshot can not replace a newer
+     * one; digest is not blocked while the file is written.
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void save() throws IOException {
+        synchronized (saveLock) {
+            List<Map.Entry<String, Cached>> snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                snapshot = new ArrayList<Map.Entry<String, Cached>>(entries.entrySet());
+                dirty = false;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 65536))) {
+                    out.writeInt(MAGIC);
+                    out.writeByte(VERSION);
+                    out.writeInt(snapshot.size());
+                    ByteBuffer encoded = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+                    for (Map.Entry<String, Cached> mapEntry : snapshot) {
+                        Cached entry = mapEntry.getValue();
+                        out.writeUTF(mapEntry.getKey());
+                        out.writeUTF(entry.fileKey);
+                        out.writeLong(entry.size);
+                        out.writeLong(entry.modified);
+                        out.writeInt(entry.boundary);
+                        out.write(entry.digest);
+                        encoded.clear();
+                        entry.state.writeTo(encoded);
+                        out.writeByte(encoded.position());
+                        out.write(encoded.array(), 0, encoded.position());
+                    }
+                }
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                CheckpointJournal.forceDirectory(file);
+            } catch (IOException ex) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+        if (in.available() < 9 || in.readInt() != MAGIC) {
+            throw new IOException(file + " is not a file hash cache");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException(file + " has unknown file hash cache version " + version);
+        }
+        int count = in.readInt();
+        try {
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String fileKey = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                int boundary = in.readInt();
+                byte[] digest = new byte[16];
+                in.readFully(digest);
+                byte[] state = new byte[in.readUnsignedByte()];
+                in.readFully(state);
+                MD5State md5State = MD5State.readFrom(ByteBuffer.wrap(state));
+                if (md5State.getCount() != size) {
+                    break;
+                }
+                entries.put(key, new Cached(fileKey, size, modified, digest, md5State, boundary));
+            }
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException ex) {
+            // keep the entries read so far
+        }
+        evictions = 0;
+    }
+
+    /**
+     * saves the cache.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        save();
+    }
+
+    private static final class Cached {
+
+        final String fileKey;
+        final long size;
+        final long modified;
+        final byte[] digest;
+        final MD5State state;
+        final int boundary;
+
+        Cached(String fileKey, long size, long modified, byte[] digest, MD5State state, int boundary) {
+            this.fileKey = fileKey;
+            this.size = size;
+            this.modified = modified;
+            this.digest = digest;
+            this.state = state;
+            this.boundary = boundary;
+        }
+    }
+}
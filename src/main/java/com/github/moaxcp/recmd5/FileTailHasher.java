@@ -0,0 +1,362 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Follows append-only files such as logs and keeps the md5 of each file up to
+ * date. Every poll only reads the bytes appended since the last one, updates
+ * the digest of that file and passes the digest of the whole file to a
+ * DigestListener.
+ * <p>
+ * The state of every followed file is stored in a CheckpointJournal. The
+ * session id is the absolute path of the file and its file key, separated by a
+ * NUL character, so it only changes when the file is replaced. A CRC32 of the
+ * last 4 KiB hashed is stored as the data of each checkpoint. The number of
+ * bytes hashed is the count of the state, so following a file again after a
+ * restart continues at the end of the hashed content instead of reading it
+ * again.
+ * <p>
+ * Before hashing appended bytes the file key and the boundary CRC32 are
+ * checked, after a restart as well as between polls. A file that becomes
+ * shorter than what has been hashed, that is replaced by another file, or
+ * whose boundary region changed, for instance because it was truncated and
+ * grew past the old size before the next poll, is hashed again from the start.
+ * Like FileHashCache this only covers the end of the hashed content. A file
+ * that does not exist is skipped until it appears.
+ * <p>
+ * poll can be called from a scheduler of the caller. run calls poll in a loop
+ * and uses a WatchService on the parent directories to wake up early when a
+ * followed file changes, falling back to polling every pollMillis.
+ *
+ * @author john
+ */
+public final class FileTailHasher implements Closeable {
+
+    /**
+     * receives the digest of a file after it grew.
+     */
+    public interface DigestListener {
+
+        /**
+         * @param file the absolute path of the file
+         * @param size the number of bytes hashed
+         * @param digest the md5 of the first size bytes of file
+         * @throws IOException if the digest could not be published
+         */
+        void digested(Path file, long size, byte[] digest) throws IOException;
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    private static final char SEPARATOR = '\0';
+    private static final int BOUNDARY_SIZE = 4096;
+
+    private final CheckpointJournal journal;
+    private final DigestListener listener;
+    private final ByteBuffer buffer;
+    private final ByteBuffer boundaryBuffer = ByteBuffer.allocate(BOUNDARY_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final Map<Path, Tail> tails = new LinkedHashMap<Path, Tail>();
+    private WatchService watcher;
+    private boolean closed;
+
+    /**
+     * creates a follower with a 1 MiB read buffer.
+     *
+     * @param journal stores the state of each file
+     * @param listener receives the digests
+     */
+    public FileTailHasher(CheckpointJournal journal, DigestListener listener) {
+        this(journal, listener, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param journal stores the state of each file
+     * @param listener receives the digests
+     * @param bufferSize the size of the read buffer
+     */
+    public FileTailHasher(CheckpointJournal journal, DigestListener listener, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+        }
+        this.journal = journal;
+        this.listener = listener;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * starts following file. If the journal holds a state for file hashing
+     * continues from it once the next poll has checked that file is still the
+     * file the state was taken from.
+     *
+     * @param file the file to follow
+     * @throws IOException if the directory of file could not be watched
+     */
+    public synchronized void follow(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        if (tails.containsKey(path)) {
+            return;
+        }
+        // a crash after a replaced file was hashed can leave the id of the old file
+        String prefix = path.toString() + SEPARATOR;
+        String id = null;
+        MD5State state = null;
+        for (Map.Entry<String, MD5State> entry : journal.getStates().entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            if (state == null || entry.getValue().getCount() > state.getCount()) {
+                if (id != null) {
+                    journal.remove(id);
+                }
+                id = key;
+                state = entry.getValue();
+            } else {
+                journal.remove(key);
+            }
+        }
+        byte[] boundary = id == null ? null : journal.getData(id);
+        Tail tail;
+        if (boundary == null || boundary.length != 4) {
+            tail = new Tail(path, new MD5MessageDigest(), 0);
+        } else {
+            tail = new Tail(path, new MD5MessageDigest(state), state.getCount());
+            tail.fileKey = id.substring(prefix.length());
+            tail.boundary = ByteBuffer.wrap(boundary).getInt();
+        }
+        tail.id = id;
+        tails.put(path, tail);
+        if (watcher != null) {
+            register(path);
+        }
+    }
+
+    /**
+     * stops following file and removes its state from the journal.
+     *
+     * @param file the file to stop following
+     * @throws IOException if the journal could not be written
+     */
+    public synchronized void unfollow(Path file) throws IOException {
+        Tail tail = tails.remove(file.toAbsolutePath().normalize());
+        if (tail != null && tail.id != null) {
+            journal.remove(tail.id);
+        }
+    }
+
+    /**
+     * @return the absolute paths of the followed files
+     */
+    public synchronized List<Path> getFiles() {
+        return new ArrayList<Path>(tails.keySet());
+    }
+
+    /**
+     * @param file a followed file
+     * @return the number of bytes of file that have been hashed or -1 if file
+     * is not followed
+     */
+    public synchronized long getSize(Path file) {
+        Tail tail = tails.get(file.toAbsolutePath().normalize());
+        return tail == null ? -1 : tail.offset;
+    }
+
+    /**
+     * hashes the bytes appended to every followed file since the last poll.
+     *
+     * @return the number of files whose digest was published
+     * @throws IOException if a file could not be read, the journal could not
+     * be written or the listener failed
+     */
+    public synchronized int poll() throws IOException {
+        int published = 0;
+        for (Tail tail : tails.values()) {
+            if (update(tail)) {
+                published++;
+            }
+        }
+        return published;
+    }
+
+    private boolean update(Tail tail) throws IOException {
+        String fileKey;
+        try (FileChannel channel = FileChannel.open(tail.file, StandardOpenOption.READ)) {
+            BasicFileAttributes attributes = Files.readAttributes(tail.file, BasicFileAttributes.class);
+            fileKey = attributes.fileKey() == null ? "" : attributes.fileKey().toString();
+            long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            long size = channel.size();
+            if (fileKey.equals(tail.fileKey) && size == tail.offset && modified == tail.modified) {
+                return false;
+            }
+            boolean restarted = false;
+            if ((tail.fileKey != null && !tail.fileKey.equals(fileKey)) || size < tail.offset
+                    || (tail.offset > 0 && boundary(channel, tail.offset) != tail.boundary)) {
+                tail.digest.reset();
+                tail.offset = 0;
+                restarted = true;
+            }
+            tail.fileKey = fileKey;
+            tail.modified = modified;
+            if (size == tail.offset && !restarted) {
+                return false;
+            }
+            while (tail.offset < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), size - tail.offset));
+                int n = channel.read(buffer, tail.offset);
+                if (n < 0) {
+                    break;
+                }
+                buffer.flip();
+                tail.digest.update(buffer);
+                tail.offset += n;
+            }
+            tail.boundary = boundary(channel, tail.offset);
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+        String id = tail.file.toString() + SEPARATOR + fileKey;
+        journal.append(id, tail.digest.getState(), ByteBuffer.allocate(4).putInt(tail.boundary).array());
+        if (tail.id != null && !tail.id.equals(id)) {
+            journal.remove(tail.id);
+        }
+        tail.id = id;
+        listener.digested(tail.file, tail.offset, tail.digest.digest());
+        return true;
+    }
+
+    /**
+     * @return the CRC32 of the BOUNDARY_SIZE bytes of channel before end
+     */
+    private int boundary(FileChannel channel, long end) throws IOException {
+        int length = (int) Math.min(boundaryBuffer.capacity(), end);
+        boundaryBuffer.clear();
+        boundaryBuffer.limit(length);
+        while (boundaryBuffer.hasRemaining()) {
+            if (channel.read(boundaryBuffer, end - length + boundaryBuffer.position()) < 0) {
+                break;
+            }
+        }
+        boundaryBuffer.flip();
+        crc.reset();
+        crc.update(boundaryBuffer);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * polls the followed files until the thread is interrupted or close is
+     * called.
+     *
+     * @param pollMillis the longest time between two polls
+     * @throws IOException if poll failed
+     * @throws InterruptedException if the thread was interrupted
+     */
+    public void run(long pollMillis) throws IOException, InterruptedException {
+        WatchService service;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (watcher == null) {
+                watcher = FileSystems.getDefault().newWatchService();
+                for (Path path : tails.keySet()) {
+                    register(path);
+                }
+            }
+            service = watcher;
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                poll();
+                WatchKey key = service.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+            throw new InterruptedException();
+        } catch (ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    private void register(Path path) throws IOException {
+        Path directory = path.getParent();
+        if (directory != null) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+
+    /**
+     * stops run. The journal is not closed.
+     *
+     * @throws IOException if the WatchService could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private static final class Tail {
+
+        final Path file;
+        final MD5MessageDigest digest;
+        long offset;
+        String id;
+        String fileKey;
+        long modified = -1;
+        int boundary;
+
+        Tail(Path file, MD5MessageDigest digest, long offset) {
+            this.file = file;
+            this.digest = digest;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe registry of hashing sessions, for instance one per upload.
+ * Chunks of a session can be offered at any offset from any thread. A chunk at
+ * the offset the session has hashed up to is hashed right away, followed by
+ * any waiting chunks it makes contiguous. Other chunks wait in a reorder
+ * window until the gap before them is filled.
+ * <p>
+ * Each session has its own lock, so sessions are hashed in parallel and only
+ * chunks of the same session wait for each other. The bytes waiting in the
+ * window of a session are limited to maxBufferedBytes. offer blocks while an
+ * out of order chunk does not fit and tryOffer returns false instead, which
+ * pushes back on the sender. A chunk at the current offset never waits, so
+ * the window always drains once the missing range arrives. That range must be
+ * able to arrive: a bounded pool whose threads all block in offer while the
+ * missing chunk is queued behind them stalls, such pools should use tryOffer.
+ * <p>
+ * Chunks are copied when they have to wait. A chunk that was already hashed
+ * is ignored and a chunk overlapping the hashed range only adds its new
+ * bytes, so retried ranges are harmless as long as they carry the same data.
+ *
+ * @author john
+ */
+public final class HashSessionRegistry {
+
+    private final int maxBufferedBytes;
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+
+    /**
+     * @param maxBufferedBytes the number of out of order bytes a session may
+     * hold
+     */
+    public HashSessionRegistry(int maxBufferedBytes) {
+        if (maxBufferedBytes < 0) {
+            throw new IllegalArgumentException("maxBufferedBytes must not be negative but was " + maxBufferedBytes);
+        }
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /**
+     * returns the session for id, creating it at offset 0 if it is not open.
+     *
+     * @param id the session id
+     * @return the session
+     */
+    public Session open(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            Session created = new Session(id, new MD5MessageDigest());
+            session = sessions.putIfAbsent(id, created);
+            if (session == null) {
+                session = created;
+            }
+        }
+        return session;
+    }
+
+    /**
+     * opens a session that continues from a checkpoint, at the offset given by
+     * the count of state.
+     *
+     * @param id the session id
+     * @param state the state to continue from
+     * @return the session
+     * @throws IllegalStateException if a session with id is open
+     */
+    public Session open(String id, MD5State state) {
+        Session created = new Session(id, new MD5MessageDigest(state));
+        if (sessions.putIfAbsent(id, created) != null) {
+            throw new IllegalStateException("session " + id + " is already open");
+        }
+        return created;
+    }
+
+    /**
+     * @param id the session id
+     * @return the session or null if it is not open
+     */
+    public Session get(String id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * @return the number of open sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * closes a session and returns the md5 of its bytes. Threads waiting to
+     * offer to the session fail with IllegalStateException.
+     *
+     * @param id the session id
+     * @return the md5 of the contiguous bytes of the session
+     * @throws IllegalStateException if the session is not open or still holds
+     * out of order chunks
+     */
+    public byte[] close(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalStateException("session " + id + " is not open");
+        }
+        byte[] digest = session.close();
+        sessions.remove(id, session);
+        return digest;
+    }
+
+    /**
+     * removes a session without checking for missing chunks.
+     *
+     * @param id the session id
+     */
+    public void abort(String id) {
+        Session session = sessions.remove(id);
+        if (session != null) {
+            session.abort();
+        }
+    }
+
+    /**
+     * a session of the registry.
+     */
+    public final class Session {
+
+        private final String id;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition drained = lock.newCondition();
+        private final MD5MessageDigest digest;
+        private final TreeMap<Long, byte[]> window = new TreeMap<Long, byte[]>();
+        private long offset;
+        private long bufferedBytes;
+        private boolean closed;
+
+        Session(String id, MD5MessageDigest digest) {
+            this.id = id;
+            this.digest = digest;
+            offset = digest.getState().getCount();
+        }
+
+        /**
+         * @return the id of the session
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * offers a chunk, waiting for room in the window if needed.
+         *
+         * @param position the offset of the chunk in the session
+         * @param bytes holds the chunk
+         * @param off the first byte of the chunk in bytes
+         * @param len the length of the chunk
+         * @throws InterruptedException if interrupted while waiting
+         * @throws IllegalStateException if the session was closed
+         */
+        public void offer(long position, byte[] bytes, int off, int len) throws InterruptedException {
+            offer(position, bytes, off, len, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * offers a chunk, waiting up to timeout for room in the window.
+         *
+         * @param position the offset of the chunk in the session
+         * @param bytes holds the chunk
+         * @param off the first byte of the chunk in bytes
+         * @param len the length of the chunk
+         * @param timeout the longest time to wait
+         * @param unit the unit of timeout
+         * @return false if the chunk did not fit before timeout
+         * @throws InterruptedException if interrupted while waiting
+         * @throws IllegalStateException if the session was closed
+         */
+        public boolean offer(long position, byte[] bytes, int off, int len, long timeout, TimeUnit unit) throws InterruptedException {
+            checkChunk(position, bytes, off, len);
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (!fits(position, len)) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = drained.awaitNanos(nanos);
+                }
+                accept(position, bytes, off, len);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * offers a chunk without waiting.
+         *
+         * @param position the offset of the chunk in the session
+         * @param bytes holds the chunk
+         * @param off the first byte of the chunk in bytes
+         * @param len the length of the chunk
+         * @return false if the chunk is out of order and the window is full
+         * @throws IllegalStateException if the session was closed
+         */
+        public boolean tryOffer(long position, byte[] bytes, int off, int len) {
+            checkChunk(position, bytes, off, len);
+            lock.lock();
+            try {
+                if (!fits(position, len)) {
+                    return false;
+                }
+                accept(position, bytes, off, len);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void checkChunk(long position, byte[] bytes, int off, int len) {
+            if (position < 0 || off < 0 || len < 0 || off > bytes.length - len) {
+                throw new IndexOutOfBoundsException("chunk at " + position + " off " + off + " len " + len + " array " + bytes.length);
+            }
+        }
+
+        private boolean fits(long position, int len) {
+            checkOpen();
+            return position <= offset || bufferedBytes + len <= maxBufferedBytes;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("session " + id + " is closed");
+            }
+        }
+
+        private void accept(long position, byte[] bytes, int off, int len) {
+            if (position > offset) {
+                byte[] waiting = window.get(position);
+                if (waiting == null || waiting.length < len) {
+                    window.put(position, Arrays.copyOfRange(bytes, off, off + len));
+                    bufferedBytes += len - (waiting == null ? 0 : waiting.length);
+                }
+                return;
+            }
+            hash(position, bytes, off, len);
+            Map.Entry<Long, byte[]> next;
+            while ((next = window.firstEntry()) != null && next.getKey() <= offset) {
+                window.remove(next.getKey());
+                bufferedBytes -= next.getValue().length;
+                hash(next.getKey(), next.getValue(), 0, next.getValue().length);
+            }
+            drained.signalAll();
+        }
+
+        private void hash(long position, byte[] bytes, int off, int len) {
+            long skip = offset - position;
+            if (skip < len) {
+                digest.update(bytes, off + (int) skip, len - (int) skip);
+                offset += len - skip;
+            }
+        }
+
+        /**
+         * @return the number of contiguous bytes hashed
+         */
+        public long getOffset() {
+            lock.lock();
+            try {
+                return offset;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the number of bytes waiting in the window
+         */
+        public long getBufferedBytes() {
+            lock.lock();
+            try {
+                return bufferedBytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return a checkpoint of the contiguous bytes, chunks in the window
+         * are not part of it
+         */
+        public MD5State getState() {
+            lock.lock();
+            try {
+                return digest.getState();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the md5 of the contiguous bytes hashed so far
+         */
+        public byte[] digest() {
+            lock.lock();
+            try {
+                return digest.digest();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] close() {
+            lock.lock();
+            try {
+                checkOpen();
+                if (!window.isEmpty()) {
+                    throw new IllegalStateException("session " + id + " is missing bytes from " + offset + " to " + window.firstKey());
+                }
+                closed = true;
+                drained.signalAll();
+                return digest.digest();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void abort() {
+            lock.lock();
+            try {
+                closed = true;
+                window.clear();
+                bufferedBytes = 0;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
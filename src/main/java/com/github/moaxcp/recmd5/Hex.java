@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+
+/**
+ * Writes the four words of an md5 as 32 lower case hex characters without
+ * going through a byte array or StringBuilder.
+ *
+ * @author john
+ */
+final class Hex {
+
+    static final int LENGTH = 32;
+
+    private static final char[] HEX_CHARS = {'0', '1', '2', '3',
+        '4', '5', '6', '7',
+        '8', '9', 'a', 'b',
+        'c', 'd', 'e', 'f',};
+
+    private Hex() {
+    }
+
+    static void encode(MD5Words words, char[] dst, int offset) {
+        checkBounds(dst.length, offset);
+        for (int i = 0; i < 4; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int b = words.word(i) >>> shift;
+                dst[offset++] = HEX_CHARS[(b >>> 4) & 0xf];
+                dst[offset++] = HEX_CHARS[b & 0xf];
+            }
+        }
+    }
+
+    static void encode(MD5Words words, byte[] dst, int offset) {
+        checkBounds(dst.length, offset);
+        for (int i = 0; i < 4; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int b = words.word(i) >>> shift;
+                dst[offset++] = (byte) HEX_CHARS[(b >>> 4) & 0xf];
+                dst[offset++] = (byte) HEX_CHARS[b & 0xf];
+            }
+        }
+    }
+
+    static void encode(MD5Words words, CharBuffer dst) {
+        if (dst.remaining() < LENGTH) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < 4; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int b = words.word(i) >>> shift;
+                dst.put(HEX_CHARS[(b >>> 4) & 0xf]);
+                dst.put(HEX_CHARS[b & 0xf]);
+            }
+        }
+    }
+
+    static String toString(MD5Words words) {
+        char[] chars = new char[LENGTH];
+        encode(words, chars, 0);
+        return new String(chars);
+    }
+
+    private static void checkBounds(int length, int offset) {
+        if (offset < 0 || offset > length - LENGTH) {
+            throw new IndexOutOfBoundsException("no room for " + LENGTH + " characters at " + offset + " in an array of " + length);
+        }
+    }
+}
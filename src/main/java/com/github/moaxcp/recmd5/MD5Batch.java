@@ -0,0 +1,910 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.util.Arrays;
+
+/**
+ * Hashes many independent messages at once. A single MD5 is limited by the
+ * chain of dependent additions through a, b, c and d in each block, which
+ * leaves most of a modern CPU idle. MD5Batch runs four messages through one
+ * transform with their steps interleaved so the CPU can execute the four
+ * dependency chains in parallel.
+ * <p>
+ * Each lane takes the next message when its current message is finished, so
+ * messages of different lengths can be mixed. When only one message is left
+ * it is finished with the single message transform.
+ *
+ * @author john
+ */
+public final class MD5Batch {
+
+    /**
+     * the number of messages hashed together.
+     */
+    static final int LANES = 4;
+
+    private MD5Batch() {
+    }
+
+    /**
+     * hashes each input.
+     *
+     * @param inputs the messages to hash
+     * @return the md5 of each message in the order of inputs
+     */
+    public static byte[][] hash(byte[][] inputs) {
+        byte[][] outputs = new byte[inputs.length][16];
+        hash(inputs, outputs);
+        return outputs;
+    }
+
+    /**
+     * hashes each input into the output with the same index.
+     *
+     * @param inputs the messages to hash
+     * @param outputs arrays of at least 16 bytes receiving the md5 of the
+     * input with the same index
+     */
+    public static void hash(byte[][] inputs, byte[][] outputs) {
+        if (outputs.length < inputs.length) {
+            throw new IllegalArgumentException("outputs has " + outputs.length + " entries for " + inputs.length + " inputs");
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            if (outputs[i] == null || outputs[i].length < 16) {
+                throw new IllegalArgumentException("output " + i + " can not hold a digest");
+            }
+        }
+
+        int[] chain = new int[LANES * 4];
+        int[] work = new int[LANES * 4];
+        int[] x = new int[LANES * 16];
+        Lane[] lanes = new Lane[LANES];
+        int next = 0;
+        int active = 0;
+        for (int i = 0; i < LANES; i++) {
+            lanes[i] = new Lane();
+            if (next < inputs.length) {
+                lanes[i].start(inputs[next], outputs[next], chain, i * 4);
+                next++;
+                active++;
+            }
+        }
+
+        while (active > 1) {
+            for (int i = 0; i < LANES; i++) {
+                if (lanes[i].input != null) {
+                    lanes[i].decode(x, i * 16);
+                }
+            }
+            System.arraycopy(chain, 0, work, 0, chain.length);
+            round1(work, x);
+            round2(work, x);
+            round3(work, x);
+            round4(work, x);
+            for (int i = 0; i < chain.length; i++) {
+                chain[i] += work[i];
+            }
+            for (int i = 0; i < LANES; i++) {
+                Lane lane = lanes[i];
+                if (lane.input != null && ++lane.block == lane.blocks) {
+                    lane.finish(chain, i * 4);
+                    if (next < inputs.length) {
+                        lane.start(inputs[next], outputs[next], chain, i * 4);
+                        next++;
+                    } else {
+                        active--;
+                    }
+                }
+            }
+        }
+
+        if (active == 1) {
+            int i = 0;
+            while (lanes[i].input == null) {
+                i++;
+            }
+            Lane lane = lanes[i];
+            MD5Words state = new MD5Words();
+            state.a = chain[i * 4];
+            state.b = chain[i * 4 + 1];
+            state.c = chain[i * 4 + 2];
+            state.d = chain[i * 4 + 3];
+            int[] single = new int[16];
+            for (; lane.block < lane.blocks; lane.block++) {
+                lane.decode(single, 0);
+                MD5MessageDigest.transform(state, single);
+            }
+            chain[i * 4] = state.a;
+            chain[i * 4 + 1] = state.b;
+            chain[i * 4 + 2] = state.c;
+            chain[i * 4 + 3] = state.d;
+            lane.finish(chain, i * 4);
+        }
+    }
+
+    /**
+     * a message assigned to one lane.
+     */
+    private static final class Lane {
+
+        byte[] input;
+        byte[] output;
+        int block;
+        int fullBlocks;
+        int blocks;
+
+        /**
+         * the last partial block of input followed by padding and length.
+         */
+        final byte[] tail = new byte[128];
+
+        void start(byte[] input, byte[] output, int[] chain, int offset) {
+            this.input = input;
+            this.output = output;
+            block = 0;
+            fullBlocks = input.length / 64;
+            blocks = (input.length + 8) / 64 + 1;
+
+            int remaining = input.length - fullBlocks * 64;
+            int tailLength = (blocks - fullBlocks) * 64;
+            System.arraycopy(input, fullBlocks * 64, tail, 0, remaining);
+            tail[remaining] = (byte) 0x80;
+            Arrays.fill(tail, remaining + 1, tailLength - 8, (byte) 0);
+            long bits = (long) input.length << 3;
+            for (int i = 0; i < 8; i++) {
+                tail[tailLength - 8 + i] = (byte) (bits >>> (i * 8));
+            }
+
+            chain[offset] = 0x67452301;
+            chain[offset + 1] = 0xefcdab89;
+            chain[offset + 2] = 0x98badcfe;
+            chain[offset + 3] = 0x10325476;
+        }
+
+        void decode(int[] x, int offset) {
+            if (block < fullBlocks) {
+                MD5Batch.decode(input, block * 64, x, offset);
+            } else {
+                MD5Batch.decode(tail, (block - fullBlocks) * 64, x, offset);
+            }
+        }
+
+        void finish(int[] chain, int offset) {
+            for (int i = 0, j = 0; i < 4; i++, j += 4) {
+                int word = chain[offset + i];
+                output[j] = (byte) word;
+                output[j + 1] = (byte) (word >>> 8);
+                output[j + 2] = (byte) (word >>> 16);
+                output[j + 3] = (byte) (word >>> 24);
+            }
+            input = null;
+            output = null;
+        }
+    }
+
+    private static void decode(byte[] buffer, int shift, int[] out, int offset) {
+        for (int i = offset; i < offset + 16; i++, shift += 4) {
+            out[i] = (buffer[shift] & 0xff)
+                    | ((buffer[shift + 1] & 0xff) << 8)
+                    | ((buffer[shift + 2] & 0xff) << 16)
+                    | (buffer[shift + 3] << 24);
+        }
+    }
+
+    /*
+     * The rounds are split into separate methods to keep each one small enough
+     * for the JIT compiler. Lane n keeps its state in an, bn, cn and dn and
+     * reads its block from x[16 * n] to x[16 * n + 15].
+     */
+
+    private static void round1(int[] s, int[] x) {
+        int a0 = s[0], b0 = s[1], c0 = s[2], d0 = s[3],
+                a1 = s[4], b1 = s[5], c1 = s[6], d1 = s[7],
+                a2 = s[8], b2 = s[9], c2 = s[10], d2 = s[11],
+                a3 = s[12], b3 = s[13], c3 = s[14], d3 = s[15];
+
+        /* 1 */
+        a0 += ((b0 & c0) | (~b0 & d0)) + x[0] + 0xd76aa478;
+        a0 = ((a0 << 7) | (a0 >>> 25)) + b0;
+        a1 += ((b1 & c1) | (~b1 & d1)) + x[16] + 0xd76aa478;
+        a1 = ((a1 << 7) | (a1 >>> 25)) + b1;
+        a2 += ((b2 & c2) | (~b2 & d2)) + x[32] + 0xd76aa478;
+        a2 = ((a2 << 7) | (a2 >>> 25)) + b2;
+        a3 += ((b3 & c3) | (~b3 & d3)) + x[48] + 0xd76aa478;
+        a3 = ((a3 << 7) | (a3 >>> 25)) + b3;
+
+        /* 2 */
+        d0 += ((a0 & b0) | (~a0 & c0)) + x[1] + 0xe8c7b756;
+        d0 = ((d0 << 12) | (d0 >>> 20)) + a0;
+        d1 += ((a1 & b1) | (~a1 & c1)) + x[17] + 0xe8c7b756;
+        d1 = ((d1 << 12) | (d1 >>> 20)) + a1;
+        d2 += ((a2 & b2) | (~a2 & c2)) + x[33] + 0xe8c7b756;
+        d2 = ((d2 << 12) | (d2 >>> 20)) + a2;
+        d3 += ((a3 & b3) | (~a3 & c3)) + x[49] + 0xe8c7b756;
+        d3 = ((d3 << 12) | (d3 >>> 20)) + a3;
+
+        /* 3 */
+        c0 += ((d0 & a0) | (~d0 & b0)) + x[2] + 0x242070db;
+        c0 = ((c0 << 17) | (c0 >>> 15)) + d0;
+        c1 += ((d1 & a1) | (~d1 & b1)) + x[18] + 0x242070db;
+        c1 = ((c1 << 17) | (c1 >>> 15)) + d1;
+        c2 += ((d2 & a2) | (~d2 & b2)) + x[34] + 0x242070db;
+        c2 = ((c2 << 17) | (c2 >>> 15)) + d2;
+        c3 += ((d3 & a3) | (~d3 & b3)) + x[50] + 0x242070db;
+        c3 = ((c3 << 17) | (c3 >>> 15)) + d3;
+
+        /* 4 */
+        b0 += ((c0 & d0) | (~c0 & a0)) + x[3] + 0xc1bdceee;
+        b0 = ((b0 << 22) | (b0 >>> 10)) + c0;
+        b1 += ((c1 & d1) | (~c1 & a1)) + x[19] + 0xc1bdceee;
+        b1 = ((b1 << 22) | (b1 >>> 10)) + c1;
+        b2 += ((c2 & d2) | (~c2 & a2)) + x[35] + 0xc1bdceee;
+        b2 = ((b2 << 22) | (b2 >>> 10)) + c2;
+        b3 += ((c3 & d3) | (~c3 & a3)) + x[51] + 0xc1bdceee;
+        b3 = ((b3 << 22) | (b3 >>> 10)) + c3;
+
+        /* 5 */
+        a0 += ((b0 & c0) | (~b0 & d0)) + x[4] + 0xf57c0faf;
+        a0 = ((a0 << 7) | (a0 >>> 25)) + b0;
+        a1 += ((b1 & c1) | (~b1 & d1)) + x[20] + 0xf57c0faf;
+        a1 = ((a1 << 7) | (a1 >>> 25)) + b1;
+        a2 += ((b2 & c2) | (~b2 & d2)) + x[36] + 0xf57c0faf;
+        a2 = ((a2 << 7) | (a2 >>> 25)) + b2;
+        a3 += ((b3 & c3) | (~b3 & d3)) + x[52] + 0xf57c0faf;
+        a3 = ((a3 << 7) | (a3 >>> 25)) + b3;
+
+        /* 6 */
+        d0 += ((a0 & b0) | (~a0 & c0)) + x[5] + 0x4787c62a;
+        d0 = ((d0 << 12) | (d0 >>> 20)) + a0;
+        d1 += ((a1 & b1) | (~a1 & c1)) + x[21] + 0x4787c62a;
+        d1 = ((d1 << 12) | (d1 >>> 20)) + a1;
+        d2 += ((a2 & b2) | (~a2 & c2)) + x[37] + 0x4787c62a;
+        d2 = ((d2 << 12) | (d2 >>> 20)) + a2;
+        d3 += ((a3 & b3) | (~a3 & c3)) + x[53] + 0x4787c62a;
+        d3 = ((d3 << 12) | (d3 >>> 20)) + a3;
+
+        /* 7 */
+        c0 += ((d0 & a0) | (~d0 & b0)) + x[6] + 0xa8304613;
+        c0 = ((c0 << 17) | (c0 >>> 15)) + d0;
+        c1 += ((d1 & a1) | (~d1 & b1)) + x[22] + 0xa8304613;
+        c1 = ((c1 << 17) | (c1 >>> 15)) + d1;
+        c2 += ((d2 & a2) | (~d2 & b2)) + x[38] + 0xa8304613;
+        c2 = ((c2 << 17) | (c2 >>> 15)) + d2;
+        c3 += ((d3 & a3) | (~d3 & b3)) + x[54] + 0xa8304613;
+        c3 = ((c3 << 17) | (c3 >>> 15)) + d3;
+
+        /* 8 */
+        b0 += ((c0 & d0) | (~c0 & a0)) + x[7] + 0xfd469501;
+        b0 = ((b0 << 22) | (b0 >>> 10)) + c0;
+        b1 += ((c1 & d1) | (~c1 & a1)) + x[23] + 0xfd469501;
+        b1 = ((b1 << 22) | (b1 >>> 10)) + c1;
+        b2 += ((c2 & d2) | (~c2 & a2)) + x[39] + 0xfd469501;
+        b2 = ((b2 << 22) | (b2 >>> 10)) + c2;
+        b3 += ((c3 & d3) | (~c3 & a3)) + x[55] + 0xfd469501;
+        b3 = ((b3 << 22) | (b3 >>> 10)) + c3;
+
+        /* 9 */
+        a0 += ((b0 & c0) | (~b0 & d0)) + x[8] + 0x698098d8;
+        a0 = ((a0 << 7) | (a0 >>> 25)) + b0;
+        a1 += ((b1 & c1) | (~b1 & d1)) + x[24] + 0x698098d8;
+        a1 = ((a1 << 7) | (a1 >>> 25)) + b1;
+        a2 += ((b2 & c2) | (~b2 & d2)) + x[40] + 0x698098d8;
+        a2 = ((a2 << 7) | (a2 >>> 25)) + b2;
+        a3 += ((b3 & c3) | (~b3 & d3)) + x[56] + 0x698098d8;
+        a3 = ((a3 << 7) | (a3 >>> 25)) + b3;
+
+        /* 10 */
+        d0 += ((a0 & b0) | (~a0 & c0)) + x[9] + 0x8b44f7af;
+        d0 = ((d0 << 12) | (d0 >>> 20)) + a0;
+        d1 += ((a1 & b1) | (~a1 & c1)) + x[25] + 0x8b44f7af;
+        d1 = ((d1 << 12) | (d1 >>> 20)) + a1;
+        d2 += ((a2 & b2) | (~a2 & c2)) + x[41] + 0x8b44f7af;
+        d2 = ((d2 << 12) | (d2 >>> 20)) + a2;
+        d3 += ((a3 & b3) | (~a3 & c3)) + x[57] + 0x8b44f7af;
+        d3 = ((d3 << 12) | (d3 >>> 20)) + a3;
+
+        /* 11 */
+        c0 += ((d0 & a0) | (~d0 & b0)) + x[10] + 0xffff5bb1;
+        c0 = ((c0 << 17) | (c0 >>> 15)) + d0;
+        c1 += ((d1 & a1) | (~d1 & b1)) + x[26] + 0xffff5bb1;
+        c1 = ((c1 << 17) | (c1 >>> 15)) + d1;
+        c2 += ((d2 & a2) | (~d2 & b2)) + x[42] + 0xffff5bb1;
+        c2 = ((c2 << 17) | (c2 >>> 15)) + d2;
+        c3 += ((d3 & a3) | (~d3 & b3)) + x[58] + 0xffff5bb1;
+        c3 = ((c3 << 17) | (c3 >>> 15)) + d3;
+
+        /* 12 */
+        b0 += ((c0 & d0) | (~c0 & a0)) + x[11] + 0x895cd7be;
+        b0 = ((b0 << 22) | (b0 >>> 10)) + c0;
+        b1 += ((c1 & d1) | (~c1 & a1)) + x[27] + 0x895cd7be;
+        b1 = ((b1 << 22) | (b1 >>> 10)) + c1;
+        b2 += ((c2 & d2) | (~c2 & a2)) + x[43] + 0x895cd7be;
+        b2 = ((b2 << 22) | (b2 >>> 10)) + c2;
+        b3 += ((c3 & d3) | (~c3 & a3)) + x[59] + 0x895cd7be;
+        b3 = ((b3 << 22) | (b3 >>> 10)) + c3;
+
+        /* 13 */
+        a0 += ((b0 & c0) | (~b0 & d0)) + x[12] + 0x6b901122;
+        a0 = ((a0 << 7) | (a0 >>> 25)) + b0;
+        a1 += ((b1 & c1) | (~b1 & d1)) + x[28] + 0x6b901122;
+        a1 = ((a1 << 7) | (a1 >>> 25)) + b1;
+        a2 += ((b2 & c2) | (~b2 & d2)) + x[44] + 0x6b901122;
+        a2 = ((a2 << 7) | (a2 >>> 25)) + b2;
+        a3 += ((b3 & c3) | (~b3 & d3)) + x[60] + 0x6b901122;
+        a3 = ((a3 << 7) | (a3 >>> 25)) + b3;
+
+        /* 14 */
+        d0 += ((a0 & b0) | (~a0 & c0)) + x[13] + 0xfd987193;
+        d0 = ((d0 << 12) | (d0 >>> 20)) + a0;
+        d1 += ((a1 & b1) | (~a1 & c1)) + x[29] + 0xfd987193;
+        d1 = ((d1 << 12) | (d1 >>> 20)) + a1;
+        d2 += ((a2 & b2) | (~a2 & c2)) + x[45] + 0xfd987193;
+        d2 = ((d2 << 12) | (d2 >>> 20)) + a2;
+        d3 += ((a3 & b3) | (~a3 & c3)) + x[61] + 0xfd987193;
+        d3 = ((d3 << 12) | (d3 >>> 20)) + a3;
+
+        /* 15 */
+        c0 += ((d0 & a0) | (~d0 & b0)) + x[14] + 0xa679438e;
+        c0 = ((c0 << 17) | (c0 >>> 15)) + d0;
+        c1 += ((d1 & a1) | (~d1 & b1)) + x[30] + 0xa679438e;
+        c1 = ((c1 << 17) | (c1 >>> 15)) + d1;
+        c2 += ((d2 & a2) | (~d2 & b2)) + x[46] + 0xa679438e;
+        c2 = ((c2 << 17) | (c2 >>> 15)) + d2;
+        c3 += ((d3 & a3) | (~d3 & b3)) + x[62] + 0xa679438e;
+        c3 = ((c3 << 17) | (c3 >>> 15)) + d3;
+
+        /* 16 */
+        b0 += ((c0 & d0) | (~c0 & a0)) + x[15] + 0x49b40821;
+        b0 = ((b0 << 22) | (b0 >>> 10)) + c0;
+        b1 += ((c1 & d1) | (~c1 & a1)) + x[31] + 0x49b40821;
+        b1 = ((b1 << 22) | (b1 >>> 10)) + c1;
+        b2 += ((c2 & d2) | (~c2 & a2)) + x[47] + 0x49b40821;
+        b2 = ((b2 << 22) | (b2 >>> 10)) + c2;
+        b3 += ((c3 & d3) | (~c3 & a3)) + x[63] + 0x49b40821;
+        b3 = ((b3 << 22) | (b3 >>> 10)) + c3;
+
+        s[0] = a0; s[1] = b0; s[2] = c0; s[3] = d0;
+        s[4] = a1; s[5] = b1; s[6] = c1; s[7] = d1;
+        s[8] = a2; s[9] = b2; s[10] = c2; s[11] = d2;
+        s[12] = a3; s[13] = b3; s[14] = c3; s[15] = d3;
+    }
+
+    private static void round2(int[] s, int[] x) {
+        int a0 = s[0], b0 = s[1], c0 = s[2], d0 = s[3],
+                a1 = s[4], b1 = s[5], c1 = s[6], d1 = s[7],
+                a2 = s[8], b2 = s[9], c2 = s[10], d2 = s[11],
+                a3 = s[12], b3 = s[13], c3 = s[14], d3 = s[15];
+
+        /* 17 */
+        a0 += ((b0 & d0) | (c0 & ~d0)) + x[1] + 0xf61e2562;
+        a0 = ((a0 << 5) | (a0 >>> 27)) + b0;
+        a1 += ((b1 & d1) | (c1 & ~d1)) + x[17] + 0xf61e2562;
+        a1 = ((a1 << 5) | (a1 >>> 27)) + b1;
+        a2 += ((b2 & d2) | (c2 & ~d2)) + x[33] + 0xf61e2562;
+        a2 = ((a2 << 5) | (a2 >>> 27)) + b2;
+        a3 += ((b3 & d3) | (c3 & ~d3)) + x[49] + 0xf61e2562;
+        a3 = ((a3 << 5) | (a3 >>> 27)) + b3;
+
+        /* 18 */
+        d0 += ((a0 & c0) | (b0 & ~c0)) + x[6] + 0xc040b340;
+        d0 = ((d0 << 9) | (d0 >>> 23)) + a0;
+        d1 += ((a1 & c1) | (b1 & ~c1)) + x[22] + 0xc040b340;
+        d1 = ((d1 << 9) | (d1 >>> 23)) + a1;
+        d2 += ((a2 & c2) | (b2 & ~c2)) + x[38] + 0xc040b340;
+        d2 = ((d2 << 9) | (d2 >>> 23)) + a2;
+        d3 += ((a3 & c3) | (b3 & ~c3)) + x[54] + 0xc040b340;
+        d3 = ((d3 << 9) | (d3 >>> 23)) + a3;
+
+        /* 19 */
+        c0 += ((d0 & b0) | (a0 & ~b0)) + x[11] + 0x265e5a51;
+        c0 = ((c0 << 14) | (c0 >>> 18)) + d0;
+        c1 += ((d1 & b1) | (a1 & ~b1)) + x[27] + 0x265e5a51;
+        c1 = ((c1 << 14) | (c1 >>> 18)) + d1;
+        c2 += ((d2 & b2) | (a2 & ~b2)) + x[43] + 0x265e5a51;
+        c2 = ((c2 << 14) | (c2 >>> 18)) + d2;
+        c3 += ((d3 & b3) | (a3 & ~b3)) + x[59] + 0x265e5a51;
+        c3 = ((c3 << 14) | (c3 >>> 18)) + d3;
+
+        /* 20 */
+        b0 += ((c0 & a0) | (d0 & ~a0)) + x[0] + 0xe9b6c7aa;
+        b0 = ((b0 << 20) | (b0 >>> 12)) + c0;
+        b1 += ((c1 & a1) | (d1 & ~a1)) + x[16] + 0xe9b6c7aa;
+        b1 = ((b1 << 20) | (b1 >>> 12)) + c1;
+        b2 += ((c2 & a2) | (d2 & ~a2)) + x[32] + 0xe9b6c7aa;
+        b2 = ((b2 << 20) | (b2 >>> 12)) + c2;
+        b3 += ((c3 & a3) | (d3 & ~a3)) + x[48] + 0xe9b6c7aa;
+        b3 = ((b3 << 20) | (b3 >>> 12)) + c3;
+
+        /* 21 */
+        a0 += ((b0 & d0) | (c0 & ~d0)) + x[5] + 0xd62f105d;
+        a0 = ((a0 << 5) | (a0 >>> 27)) + b0;
+        a1 += ((b1 & d1) | (c1 & ~d1)) + x[21] + 0xd62f105d;
+        a1 = ((a1 << 5) | (a1 >>> 27)) + b1;
+        a2 += ((b2 & d2) | (c2 & ~d2)) + x[37] + 0xd62f105d;
+        a2 = ((a2 << 5) | (a2 >>> 27)) + b2;
+        a3 += ((b3 & d3) | (c3 & ~d3)) + x[53] + 0xd62f105d;
+        a3 = ((a3 << 5) | (a3 >>> 27)) + b3;
+
+        /* 22 */
+        d0 += ((a0 & c0) | (b0 & ~c0)) + x[10] + 0x02441453;
+        d0 = ((d0 << 9) | (d0 >>> 23)) + a0;
+        d1 += ((a1 & c1) | (b1 & ~c1)) + x[26] + 0x02441453;
+        d1 = ((d1 << 9) | (d1 >>> 23)) + a1;
+        d2 += ((a2 & c2) | (b2 & ~c2)) + x[42] + 0x02441453;
+        d2 = ((d2 << 9) | (d2 >>> 23)) + a2;
+        d3 += ((a3 & c3) | (b3 & ~c3)) + x[58] + 0x02441453;
+        d3 = ((d3 << 9) | (d3 >>> 23)) + a3;
+
+        /* 23 */
+        c0 += ((d0 & b0) | (a0 & ~b0)) + x[15] + 0xd8a1e681;
+        c0 = ((c0 << 14) | (c0 >>> 18)) + d0;
+        c1 += ((d1 & b1) | (a1 & ~b1)) + x[31] + 0xd8a1e681;
+        c1 = ((c1 << 14) | (c1 >>> 18)) + d1;
+        c2 += ((d2 & b2) | (a2 & ~b2)) + x[47] + 0xd8a1e681;
+        c2 = ((c2 << 14) | (c2 >>> 18)) + d2;
+        c3 += ((d3 & b3) | (a3 & ~b3)) + x[63] + 0xd8a1e681;
+        c3 = ((c3 << 14) | (c3 >>> 18)) + d3;
+
+        /* 24 */
+        b0 += ((c0 & a0) | (d0 & ~a0)) + x[4] + 0xe7d3fbc8;
+        b0 = ((b0 << 20) | (b0 >>> 12)) + c0;
+        b1 += ((c1 & a1) | (d1 & ~a1)) + x[20] + 0xe7d3fbc8;
+        b1 = ((b1 << 20) | (b1 >>> 12)) + c1;
+        b2 += ((c2 & a2) | (d2 & ~a2)) + x[36] + 0xe7d3fbc8;
+        b2 = ((b2 << 20) | (b2 >>> 12)) + c2;
+        b3 += ((c3 & a3) | (d3 & ~a3)) + x[52] + 0xe7d3fbc8;
+        b3 = ((b3 << 20) | (b3 >>> 12)) + c3;
+
+        /* 25 */
+        a0 += ((b0 & d0) | (c0 & ~d0)) + x[9] + 0x21e1cde6;
+        a0 = ((a0 << 5) | (a0 >>> 27)) + b0;
+        a1 += ((b1 & d1) | (c1 & ~d1)) + x[25] + 0x21e1cde6;
+        a1 = ((a1 << 5) | (a1 >>> 27)) + b1;
+        a2 += ((b2 & d2) | (c2 & ~d2)) + x[41] + 0x21e1cde6;
+        a2 = ((a2 << 5) | (a2 >>> 27)) + b2;
+        a3 += ((b3 & d3) | (c3 & ~d3)) + x[57] + 0x21e1cde6;
+        a3 = ((a3 << 5) | (a3 >>> 27)) + b3;
+
+        /* 26 */
+        d0 += ((a0 & c0) | (b0 & ~c0)) + x[14] + 0xc33707d6;
+        d0 = ((d0 << 9) | (d0 >>> 23)) + a0;
+        d1 += ((a1 & c1) | (b1 & ~c1)) + x[30] + 0xc33707d6;
+        d1 = ((d1 << 9) | (d1 >>> 23)) + a1;
+        d2 += ((a2 & c2) | (b2 & ~c2)) + x[46] + 0xc33707d6;
+        d2 = ((d2 << 9) | (d2 >>> 23)) + a2;
+        d3 += ((a3 & c3) | (b3 & ~c3)) + x[62] + 0xc33707d6;
+        d3 = ((d3 << 9) | (d3 >>> 23)) + a3;
+
+        /* 27 */
+        c0 += ((d0 & b0) | (a0 & ~b0)) + x[3] + 0xf4d50d87;
+        c0 = ((c0 << 14) | (c0 >>> 18)) + d0;
+        c1 += ((d1 & b1) | (a1 & ~b1)) + x[19] + 0xf4d50d87;
+        c1 = ((c1 << 14) | (c1 >>> 18)) + d1;
+        c2 += ((d2 & b2) | (a2 & ~b2)) + x[35] + 0xf4d50d87;
+        c2 = ((c2 << 14) | (c2 >>> 18)) + d2;
+        c3 += ((d3 & b3) | (a3 & ~b3)) + x[51] + 0xf4d50d87;
+        c3 = ((c3 << 14) | (c3 >>> 18)) + d3;
+
+        /* 28 */
+        b0 += ((c0 & a0) | (d0 & ~a0)) + x[8] + 0x455a14ed;
+        b0 = ((b0 << 20) | (b0 >>> 12)) + c0;
+        b1 += ((c1 & a1) | (d1 & ~a1)) + x[24] + 0x455a14ed;
+        b1 = ((b1 << 20) | (b1 >>> 12)) + c1;
+        b2 += ((c2 & a2) | (d2 & ~a2)) + x[40] + 0x455a14ed;
+        b2 = ((b2 << 20) | (b2 >>> 12)) + c2;
+        b3 += ((c3 & a3) | (d3 & ~a3)) + x[56] + 0x455a14ed;
+        b3 = ((b3 << 20) | (b3 >>> 12)) + c3;
+
+        /* 29 */
+        a0 += ((b0 & d0) | (c0 & ~d0)) + x[13] + 0xa9e3e905;
+        a0 = ((a0 << 5) | (a0 >>> 27)) + b0;
+        a1 += ((b1 & d1) | (c1 & ~d1)) + x[29] + 0xa9e3e905;
+        a1 = ((a1 << 5) | (a1 >>> 27)) + b1;
+        a2 += ((b2 & d2) | (c2 & ~d2)) + x[45] + 0xa9e3e905;
+        a2 = ((a2 << 5) | (a2 >>> 27)) + b2;
+        a3 += ((b3 & d3) | (c3 & ~d3)) + x[61] + 0xa9e3e905;
+        a3 = ((a3 << 5) | (a3 >>> 27)) + b3;
+
+        /* 30 */
+        d0 += ((a0 & c0) | (b0 & ~c0)) + x[2] + 0xfcefa3f8;
+        d0 = ((d0 << 9) | (d0 >>> 23)) + a0;
+        d1 += ((a1 & c1) | (b1 & ~c1)) + x[18] + 0xfcefa3f8;
+        d1 = ((d1 << 9) | (d1 >>> 23)) + a1;
+        d2 += ((a2 & c2) | (b2 & ~c2)) + x[34] + 0xfcefa3f8;
+        d2 = ((d2 << 9) | (d2 >>> 23)) + a2;
+        d3 += ((a3 & c3) | (b3 & ~c3)) + x[50] + 0xfcefa3f8;
+        d3 = ((d3 << 9) | (d3 >>> 23)) + a3;
+
+        /* 31 */
+        c0 += ((d0 & b0) | (a0 & ~b0)) + x[7] + 0x676f02d9;
+        c0 = ((c0 << 14) | (c0 >>> 18)) + d0;
+        c1 += ((d1 & b1) | (a1 & ~b1)) + x[23] + 0x676f02d9;
+        c1 = ((c1 << 14) | (c1 >>> 18)) + d1;
+        c2 += ((d2 & b2) | (a2 & ~b2)) + x[39] + 0x676f02d9;
+        c2 = ((c2 << 14) | (c2 >>> 18)) + d2;
+        c3 += ((d3 & b3) | (a3 & ~b3)) + x[55] + 0x676f02d9;
+        c3 = ((c3 << 14) | (c3 >>> 18)) + d3;
+
+        /* 32 */
+        b0 += ((c0 & a0) | (d0 & ~a0)) + x[12] + 0x8d2a4c8a;
+        b0 = ((b0 << 20) | (b0 >>> 12)) + c0;
+        b1 += ((c1 & a1) | (d1 & ~a1)) + x[28] + 0x8d2a4c8a;
+        b1 = ((b1 << 20) | (b1 >>> 12)) + c1;
+        b2 += ((c2 & a2) | (d2 & ~a2)) + x[44] + 0x8d2a4c8a;
+        b2 = ((b2 << 20) | (b2 >>> 12)) + c2;
+        b3 += ((c3 & a3) | (d3 & ~a3)) + x[60] + 0x8d2a4c8a;
+        b3 = ((b3 << 20) | (b3 >>> 12)) + c3;
+
+        s[0] = a0; s[1] = b0; s[2] = c0; s[3] = d0;
+        s[4] = a1; s[5] = b1; s[6] = c1; s[7] = d1;
+        s[8] = a2; s[9] = b2; s[10] = c2; s[11] = d2;
+        s[12] = a3; s[13] = b3; s[14] = c3; s[15] = d3;
+    }
+
+    private static void round3(int[] s, int[] x) {
+        int a0 = s[0], b0 = s[1], c0 = s[2], d0 = s[3],
+                a1 = s[4], b1 = s[5], c1 = s[6], d1 = s[7],
+                a2 = s[8], b2 = s[9], c2 = s[10], d2 = s[11],
+                a3 = s[12], b3 = s[13], c3 = s[14], d3 = s[15];
+
+        /* 33 */
+        a0 += (b0 ^ c0 ^ d0) + x[5] + 0xfffa3942;
+        a0 = ((a0 << 4) | (a0 >>> 28)) + b0;
+        a1 += (b1 ^ c1 ^ d1) + x[21] + 0xfffa3942;
+        a1 = ((a1 << 4) | (a1 >>> 28)) + b1;
+        a2 += (b2 ^ c2 ^ d2) + x[37] + 0xfffa3942;
+        a2 = ((a2 << 4) | (a2 >>> 28)) + b2;
+        a3 += (b3 ^ c3 ^ d3) + x[53] + 0xfffa3942;
+        a3 = ((a3 << 4) | (a3 >>> 28)) + b3;
+
+        /* 34 */
+        d0 += (a0 ^ b0 ^ c0) + x[8] + 0x8771f681;
+        d0 = ((d0 << 11) | (d0 >>> 21)) + a0;
+        d1 += (a1 ^ b1 ^ c1) + x[24] + 0x8771f681;
+        d1 = ((d1 << 11) | (d1 >>> 21)) + a1;
+        d2 += (a2 ^ b2 ^ c2) + x[40] + 0x8771f681;
+        d2 = ((d2 << 11) | (d2 >>> 21)) + a2;
+        d3 += (a3 ^ b3 ^ c3) + x[56] + 0x8771f681;
+        d3 = ((d3 << 11) | (d3 >>> 21)) + a3;
+
+        /* 35 */
+        c0 += (d0 ^ a0 ^ b0) + x[11] + 0x6d9d6122;
+        c0 = ((c0 << 16) | (c0 >>> 16)) + d0;
+        c1 += (d1 ^ a1 ^ b1) + x[27] + 0x6d9d6122;
+        c1 = ((c1 << 16) | (c1 >>> 16)) + d1;
+        c2 += (d2 ^ a2 ^ b2) + x[43] + 0x6d9d6122;
+        c2 = ((c2 << 16) | (c2 >>> 16)) + d2;
+        c3 += (d3 ^ a3 ^ b3) + x[59] + 0x6d9d6122;
+        c3 = ((c3 << 16) | (c3 >>> 16)) + d3;
+
+        /* 36 */
+        b0 += (c0 ^ d0 ^ a0) + x[14] + 0xfde5380c;
+        b0 = ((b0 << 23) | (b0 >>> 9)) + c0;
+        b1 += (c1 ^ d1 ^ a1) + x[30] + 0xfde5380c;
+        b1 = ((b1 << 23) | (b1 >>> 9)) + c1;
+        b2 += (c2 ^ d2 ^ a2) + x[46] + 0xfde5380c;
+        b2 = ((b2 << 23) | (b2 >>> 9)) + c2;
+        b3 += (c3 ^ d3 ^ a3) + x[62] + 0xfde5380c;
+        b3 = ((b3 << 23) | (b3 >>> 9)) + c3;
+
+        /* 37 */
+        a0 += (b0 ^ c0 ^ d0) + x[1] + 0xa4beea44;
+        a0 = ((a0 << 4) | (a0 >>> 28)) + b0;
+        a1 += (b1 ^ c1 ^ d1) + x[17] + 0xa4beea44;
+        a1 = ((a1 << 4) | (a1 >>> 28)) + b1;
+        a2 += (b2 ^ c2 ^ d2) + x[33] + 0xa4beea44;
+        a2 = ((a2 << 4) | (a2 >>> 28)) + b2;
+        a3 += (b3 ^ c3 ^ d3) + x[49] + 0xa4beea44;
+        a3 = ((a3 << 4) | (a3 >>> 28)) + b3;
+
+        /* 38 */
+        d0 += (a0 ^ b0 ^ c0) + x[4] + 0x4bdecfa9;
+        d0 = ((d0 << 11) | (d0 >>> 21)) + a0;
+        d1 += (a1 ^ b1 ^ c1) + x[20] + 0x4bdecfa9;
+        d1 = ((d1 << 11) | (d1 >>> 21)) + a1;
+        d2 += (a2 ^ b2 ^ c2) + x[36] + 0x4bdecfa9;
+        d2 = ((d2 << 11) | (d2 >>> 21)) + a2;
+        d3 += (a3 ^ b3 ^ c3) + x[52] + 0x4bdecfa9;
+        d3 = ((d3 << 11) | (d3 >>> 21)) + a3;
+
+        /* 39 */
+        c0 += (d0 ^ a0 ^ b0) + x[7] + 0xf6bb4b60;
+        c0 = ((c0 << 16) | (c0 >>> 16)) + d0;
+        c1 += (d1 ^ a1 ^ b1) + x[23] + 0xf6bb4b60;
+        c1 = ((c1 << 16) | (c1 >>> 16)) + d1;
+        c2 += (d2 ^ a2 ^ b2) + x[39] + 0xf6bb4b60;
+        c2 = ((c2 << 16) | (c2 >>> 16)) + d2;
+        c3 += (d3 ^ a3 ^ b3) + x[55] + 0xf6bb4b60;
+        c3 = ((c3 << 16) | (c3 >>> 16)) + d3;
+
+        /* 40 */
+        b0 += (c0 ^ d0 ^ a0) + x[10] + 0xbebfbc70;
+        b0 = ((b0 << 23) | (b0 >>> 9)) + c0;
+        b1 += (c1 ^ d1 ^ a1) + x[26] + 0xbebfbc70;
+        b1 = ((b1 << 23) | (b1 >>> 9)) + c1;
+        b2 += (c2 ^ d2 ^ a2) + x[42] + 0xbebfbc70;
+        b2 = ((b2 << 23) | (b2 >>> 9)) + c2;
+        b3 += (c3 ^ d3 ^ a3) + x[58] + 0xbebfbc70;
+        b3 = ((b3 << 23) | (b3 >>> 9)) + c3;
+
+        /* 41 */
+        a0 += (b0 ^ c0 ^ d0) + x[13] + 0x289b7ec6;
+        a0 = ((a0 << 4) | (a0 >>> 28)) + b0;
+        a1 += (b1 ^ c1 ^ d1) + x[29] + 0x289b7ec6;
+        a1 = ((a1 << 4) | (a1 >>> 28)) + b1;
+        a2 += (b2 ^ c2 ^ d2) + x[45] + 0x289b7ec6;
+        a2 = ((a2 << 4) | (a2 >>> 28)) + b2;
+        a3 += (b3 ^ c3 ^ d3) + x[61] + 0x289b7ec6;
+        a3 = ((a3 << 4) | (a3 >>> 28)) + b3;
+
+        /* 42 */
+        d0 += (a0 ^ b0 ^ c0) + x[0] + 0xeaa127fa;
+        d0 = ((d0 << 11) | (d0 >>> 21)) + a0;
+        d1 += (a1 ^ b1 ^ c1) + x[16] + 0xeaa127fa;
+        d1 = ((d1 << 11) | (d1 >>> 21)) + a1;
+        d2 += (a2 ^ b2 ^ c2) + x[32] + 0xeaa127fa;
+        d2 = ((d2 << 11) | (d2 >>> 21)) + a2;
+        d3 += (a3 ^ b3 ^ c3) + x[48] + 0xeaa127fa;
+        d3 = ((d3 << 11) | (d3 >>> 21)) + a3;
+
+        /* 43 */
+        c0 += (d0 ^ a0 ^ b0) + x[3] + 0xd4ef3085;
+        c0 = ((c0 << 16) | (c0 >>> 16)) + d0;
+        c1 += (d1 ^ a1 ^ b1) + x[19] + 0xd4ef3085;
+        c1 = ((c1 << 16) | (c1 >>> 16)) + d1;
+        c2 += (d2 ^ a2 ^ b2) + x[35] + 0xd4ef3085;
+        c2 = ((c2 << 16) | (c2 >>> 16)) + d2;
+        c3 += (d3 ^ a3 ^ b3) + x[51] + 0xd4ef3085;
+        c3 = ((c3 << 16) | (c3 >>> 16)) + d3;
+
+        /* 44 */
+        b0 += (c0 ^ d0 ^ a0) + x[6] + 0x04881d05;
+        b0 = ((b0 << 23) | (b0 >>> 9)) + c0;
+        b1 += (c1 ^ d1 ^ a1) + x[22] + 0x04881d05;
+        b1 = ((b1 << 23) | (b1 >>> 9)) + c1;
+        b2 += (c2 ^ d2 ^ a2) + x[38] + 0x04881d05;
+        b2 = ((b2 << 23) | (b2 >>> 9)) + c2;
+        b3 += (c3 ^ d3 ^ a3) + x[54] + 0x04881d05;
+        b3 = ((b3 << 23) | (b3 >>> 9)) + c3;
+
+        /* 45 */
+        a0 += (b0 ^ c0 ^ d0) + x[9] + 0xd9d4d039;
+        a0 = ((a0 << 4) | (a0 >>> 28)) + b0;
+        a1 += (b1 ^ c1 ^ d1) + x[25] + 0xd9d4d039;
+        a1 = ((a1 << 4) | (a1 >>> 28)) + b1;
+        a2 += (b2 ^ c2 ^ d2) + x[41] + 0xd9d4d039;
+        a2 = ((a2 << 4) | (a2 >>> 28)) + b2;
+        a3 += (b3 ^ c3 ^ d3) + x[57] + 0xd9d4d039;
+        a3 = ((a3 << 4) | (a3 >>> 28)) + b3;
+
+        /* 46 */
+        d0 += (a0 ^ b0 ^ c0) + x[12] + 0xe6db99e5;
+        d0 = ((d0 << 11) | (d0 >>> 21)) + a0;
+        d1 += (a1 ^ b1 ^ c1) + x[28] + 0xe6db99e5;
+        d1 = ((d1 << 11) | (d1 >>> 21)) + a1;
+        d2 += (a2 ^ b2 ^ c2) + x[44] + 0xe6db99e5;
+        d2 = ((d2 << 11) | (d2 >>> 21)) + a2;
+        d3 += (a3 ^ b3 ^ c3) + x[60] + 0xe6db99e5;
+        d3 = ((d3 << 11) | (d3 >>> 21)) + a3;
+
+        /* 47 */
+        c0 += (d0 ^ a0 ^ b0) + x[15] + 0x1fa27cf8;
+        c0 = ((c0 << 16) | (c0 >>> 16)) + d0;
+        c1 += (d1 ^ a1 ^ b1) + x[31] + 0x1fa27cf8;
+        c1 = ((c1 << 16) | (c1 >>> 16)) + d1;
+        c2 += (d2 ^ a2 ^ b2) + x[47] + 0x1fa27cf8;
+        c2 = ((c2 << 16) | (c2 >>> 16)) + d2;
+        c3 += (d3 ^ a3 ^ b3) + x[63] + 0x1fa27cf8;
+        c3 = ((c3 << 16) | (c3 >>> 16)) + d3;
+
+        /* 48 */
+        b0 += (c0 ^ d0 ^ a0) + x[2] + 0xc4ac5665;
+        b0 = ((b0 << 23) | (b0 >>> 9)) + c0;
+        b1 += (c1 ^ d1 ^ a1) + x[18] + 0xc4ac5665;
+        b1 = ((b1 << 23) | (b1 >>> 9)) + c1;
+        b2 += (c2 ^ d2 ^ a2) + x[34] + 0xc4ac5665;
+        b2 = ((b2 << 23) | (b2 >>> 9)) + c2;
+        b3 += (c3 ^ d3 ^ a3) + x[50] + 0xc4ac5665;
+        b3 = ((b3 << 23) | (b3 >>> 9)) + c3;
+
+        s[0] = a0; s[1] = b0; s[2] = c0; s[3] = d0;
+        s[4] = a1; s[5] = b1; s[6] = c1; s[7] = d1;
+        s[8] = a2; s[9] = b2; s[10] = c2; s[11] = d2;
+        s[12] = a3; s[13] = b3; s[14] = c3; s[15] = d3;
+    }
+
+    private static void round4(int[] s, int[] x) {
+        int a0 = s[0], b0 = s[1], c0 = s[2], d0 = s[3],
+                a1 = s[4], b1 = s[5], c1 = s[6], d1 = s[7],
+                a2 = s[8], b2 = s[9], c2 = s[10], d2 = s[11],
+                a3 = s[12], b3 = s[13], c3 = s[14], d3 = s[15];
+
+        /* 49 */
+        a0 += (c0 ^ (b0 | ~d0)) + x[0] + 0xf4292244;
+        a0 = ((a0 << 6) | (a0 >>> 26)) + b0;
+        a1 += (c1 ^ (b1 | ~d1)) + x[16] + 0xf4292244;
+        a1 = ((a1 << 6) | (a1 >>> 26)) + b1;
+        a2 += (c2 ^ (b2 | ~d2)) + x[32] + 0xf4292244;
+        a2 = ((a2 << 6) | (a2 >>> 26)) + b2;
+        a3 += (c3 ^ (b3 | ~d3)) + x[48] + 0xf4292244;
+        a3 = ((a3 << 6) | (a3 >>> 26)) + b3;
+
+        /* 50 */
+        d0 += (b0 ^ (a0 | ~c0)) + x[7] + 0x432aff97;
+        d0 = ((d0 << 10) | (d0 >>> 22)) + a0;
+        d1 += (b1 ^ (a1 | ~c1)) + x[23] + 0x432aff97;
+        d1 = ((d1 << 10) | (d1 >>> 22)) + a1;
+        d2 += (b2 ^ (a2 | ~c2)) + x[39] + 0x432aff97;
+        d2 = ((d2 << 10) | (d2 >>> 22)) + a2;
+        d3 += (b3 ^ (a3 | ~c3)) + x[55] + 0x432aff97;
+        d3 = ((d3 << 10) | (d3 >>> 22)) + a3;
+
+        /* 51 */
+        c0 += (a0 ^ (d0 | ~b0)) + x[14] + 0xab9423a7;
+        c0 = ((c0 << 15) | (c0 >>> 17)) + d0;
+        c1 += (a1 ^ (d1 | ~b1)) + x[30] + 0xab9423a7;
+        c1 = ((c1 << 15) | (c1 >>> 17)) + d1;
+        c2 += (a2 ^ (d2 | ~b2)) + x[46] + 0xab9423a7;
+        c2 = ((c2 << 15) | (c2 >>> 17)) + d2;
+        c3 += (a3 ^ (d3 | ~b3)) + x[62] + 0xab9423a7;
+        c3 = ((c3 << 15) | (c3 >>> 17)) + d3;
+
+        /* 52 */
+        b0 += (d0 ^ (c0 | ~a0)) + x[5] + 0xfc93a039;
+        b0 = ((b0 << 21) | (b0 >>> 11)) + c0;
+        b1 += (d1 ^ (c1 | ~a1)) + x[21] + 0xfc93a039;
+        b1 = ((b1 << 21) | (b1 >>> 11)) + c1;
+        b2 += (d2 ^ (c2 | ~a2)) + x[37] + 0xfc93a039;
+        b2 = ((b2 << 21) | (b2 >>> 11)) + c2;
+        b3 += (d3 ^ (c3 | ~a3)) + x[53] + 0xfc93a039;
+        b3 = ((b3 << 21) | (b3 >>> 11)) + c3;
+
+        /* 53 */
+        a0 += (c0 ^ (b0 | ~d0)) + x[12] + 0x655b59c3;
+        a0 = ((a0 << 6) | (a0 >>> 26)) + b0;
+        a1 += (c1 ^ (b1 | ~d1)) + x[28] + 0x655b59c3;
+        a1 = ((a1 << 6) | (a1 >>> 26)) + b1;
+        a2 += (c2 ^ (b2 | ~d2)) + x[44] + 0x655b59c3;
+        a2 = ((a2 << 6) | (a2 >>> 26)) + b2;
+        a3 += (c3 ^ (b3 | ~d3)) + x[60] + 0x655b59c3;
+        a3 = ((a3 << 6) | (a3 >>> 26)) + b3;
+
+        /* 54 */
+        d0 += (b0 ^ (a0 | ~c0)) + x[3] + 0x8f0ccc92;
+        d0 = ((d0 << 10) | (d0 >>> 22)) + a0;
+        d1 += (b1 ^ (a1 | ~c1)) + x[19] + 0x8f0ccc92;
+        d1 = ((d1 << 10) | (d1 >>> 22)) + a1;
+        d2 += (b2 ^ (a2 | ~c2)) + x[35] + 0x8f0ccc92;
+        d2 = ((d2 << 10) | (d2 >>> 22)) + a2;
+        d3 += (b3 ^ (a3 | ~c3)) + x[51] + 0x8f0ccc92;
+        d3 = ((d3 << 10) | (d3 >>> 22)) + a3;
+
+        /* 55 */
+        c0 += (a0 ^ (d0 | ~b0)) + x[10] + 0xffeff47d;
+        c0 = ((c0 << 15) | (c0 >>> 17)) + d0;
+        c1 += (a1 ^ (d1 | ~b1)) + x[26] + 0xffeff47d;
+        c1 = ((c1 << 15) | (c1 >>> 17)) + d1;
+        c2 += (a2 ^ (d2 | ~b2)) + x[42] + 0xffeff47d;
+        c2 = ((c2 << 15) | (c2 >>> 17)) + d2;
+        c3 += (a3 ^ (d3 | ~b3)) + x[58] + 0xffeff47d;
+        c3 = ((c3 << 15) | (c3 >>> 17)) + d3;
+
+        /* 56 */
+        b0 += (d0 ^ (c0 | ~a0)) + x[1] + 0x85845dd1;
+        b0 = ((b0 << 21) | (b0 >>> 11)) + c0;
+        b1 += (d1 ^ (c1 | ~a1)) + x[17] + 0x85845dd1;
+        b1 = ((b1 << 21) | (b1 >>> 11)) + c1;
+        b2 += (d2 ^ (c2 | ~a2)) + x[33] + 0x85845dd1;
+        b2 = ((b2 << 21) | (b2 >>> 11)) + c2;
+        b3 += (d3 ^ (c3 | ~a3)) + x[49] + 0x85845dd1;
+        b3 = ((b3 << 21) | (b3 >>> 11)) + c3;
+
+        /* 57 */
+        a0 += (c0 ^ (b0 | ~d0)) + x[8] + 0x6fa87e4f;
+        a0 = ((a0 << 6) | (a0 >>> 26)) + b0;
+        a1 += (c1 ^ (b1 | ~d1)) + x[24] + 0x6fa87e4f;
+        a1 = ((a1 << 6) | (a1 >>> 26)) + b1;
+        a2 += (c2 ^ (b2 | ~d2)) + x[40] + 0x6fa87e4f;
+        a2 = ((a2 << 6) | (a2 >>> 26)) + b2;
+        a3 += (c3 ^ (b3 | ~d3)) + x[56] + 0x6fa87e4f;
+        a3 = ((a3 << 6) | (a3 >>> 26)) + b3;
+
+        /* 58 */
+        d0 += (b0 ^ (a0 | ~c0)) + x[15] + 0xfe2ce6e0;
+        d0 = ((d0 << 10) | (d0 >>> 22)) + a0;
+        d1 += (b1 ^ (a1 | ~c1)) + x[31] + 0xfe2ce6e0;
+        d1 = ((d1 << 10) | (d1 >>> 22)) + a1;
+        d2 += (b2 ^ (a2 | ~c2)) + x[47] + 0xfe2ce6e0;
+        d2 = ((d2 << 10) | (d2 >>> 22)) + a2;
+        d3 += (b3 ^ (a3 | ~c3)) + x[63] + 0xfe2ce6e0;
+        d3 = ((d3 << 10) | (d3 >>> 22)) + a3;
+
+        /* 59 */
+        c0 += (a0 ^ (d0 | ~b0)) + x[6] + 0xa3014314;
+        c0 = ((c0 << 15) | (c0 >>> 17)) + d0;
+        c1 += (a1 ^ (d1 | ~b1)) + x[22] + 0xa3014314;
+        c1 = ((c1 << 15) | (c1 >>> 17)) + d1;
+        c2 += (a2 ^ (d2 | ~b2)) + x[38] + 0xa3014314;
+        c2 = ((c2 << 15) | (c2 >>> 17)) + d2;
+        c3 += (a3 ^ (d3 | ~b3)) + x[54] + 0xa3014314;
+        c3 = ((c3 << 15) | (c3 >>> 17)) + d3;
+
+        /* 60 */
+        b0 += (d0 ^ (c0 | ~a0)) + x[13] + 0x4e0811a1;
+        b0 = ((b0 << 21) | (b0 >>> 11)) + c0;
+        b1 += (d1 ^ (c1 | ~a1)) + x[29] + 0x4e0811a1;
+        b1 = ((b1 << 21) | (b1 >>> 11)) + c1;
+        b2 += (d2 ^ (c2 | ~a2)) + x[45] + 0x4e0811a1;
+        b2 = ((b2 << 21) | (b2 >>> 11)) + c2;
+        b3 += (d3 ^ (c3 | ~a3)) + x[61] + 0x4e0811a1;
+        b3 = ((b3 << 21) | (b3 >>> 11)) + c3;
+
+        /* 61 */
+        a0 += (c0 ^ (b0 | ~d0)) + x[4] + 0xf7537e82;
+        a0 = ((a0 << 6) | (a0 >>> 26)) + b0;
+        a1 += (c1 ^ (b1 | ~d1)) + x[20] + 0xf7537e82;
+        a1 = ((a1 << 6) | (a1 >>> 26)) + b1;
+        a2 += (c2 ^ (b2 | ~d2)) + x[36] + 0xf7537e82;
+        a2 = ((a2 << 6) | (a2 >>> 26)) + b2;
+        a3 += (c3 ^ (b3 | ~d3)) + x[52] + 0xf7537e82;
+        a3 = ((a3 << 6) | (a3 >>> 26)) + b3;
+
+        /* 62 */
+        d0 += (b0 ^ (a0 | ~c0)) + x[11] + 0xbd3af235;
+        d0 = ((d0 << 10) | (d0 >>> 22)) + a0;
+        d1 += (b1 ^ (a1 | ~c1)) + x[27] + 0xbd3af235;
+        d1 = ((d1 << 10) | (d1 >>> 22)) + a1;
+        d2 += (b2 ^ (a2 | ~c2)) + x[43] + 0xbd3af235;
+        d2 = ((d2 << 10) | (d2 >>> 22)) + a2;
+        d3 += (b3 ^ (a3 | ~c3)) + x[59] + 0xbd3af235;
+        d3 = ((d3 << 10) | (d3 >>> 22)) + a3;
+
+        /* 63 */
+        c0 += (a0 ^ (d0 | ~b0)) + x[2] + 0x2ad7d2bb;
+        c0 = ((c0 << 15) | (c0 >>> 17)) + d0;
+        c1 += (a1 ^ (d1 | ~b1)) + x[18] + 0x2ad7d2bb;
+        c1 = ((c1 << 15) | (c1 >>> 17)) + d1;
+        c2 += (a2 ^ (d2 | ~b2)) + x[34] + 0x2ad7d2bb;
+        c2 = ((c2 << 15) | (c2 >>> 17)) + d2;
+        c3 += (a3 ^ (d3 | ~b3)) + x[50] + 0x2ad7d2bb;
+        c3 = ((c3 << 15) | (c3 >>> 17)) + d3;
+
+        /* 64 */
+        b0 += (d0 ^ (c0 | ~a0)) + x[9] + 0xeb86d391;
+        b0 = ((b0 << 21) | (b0 >>> 11)) + c0;
+        b1 += (d1 ^ (c1 | ~a1)) + x[25] + 0xeb86d391;
+        b1 = ((b1 << 21) | (b1 >>> 11)) + c1;
+        b2 += (d2 ^ (c2 | ~a2)) + x[41] + 0xeb86d391;
+        b2 = ((b2 << 21) | (b2 >>> 11)) + c2;
+        b3 += (d3 ^ (c3 | ~a3)) + x[57] + 0xeb86d391;
+        b3 = ((b3 << 21) | (b3 >>> 11)) + c3;
+
+        s[0] = a0; s[1] = b0; s[2] = c0; s[3] = d0;
+        s[4] = a1; s[5] = b1; s[6] = c1; s[7] = d1;
+        s[8] = a2; s[9] = b2; s[10] = c2; s[11] = d2;
+        s[12] = a3; s[13] = b3; s[14] = c3; s[15] = d3;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder events for MD5Metrics. This class is compiled for Java 11
+ * and only loaded by name once MD5Metrics has found jdk.jfr, so MD5Metrics
+ * works on JVMs without it.
+ *
+ * @author john
+ */
+final class MD5Events implements MD5Metrics.Events {
+
+    /**
+     * registers the periodic statistics event.
+     */
+    MD5Events(final MD5Metrics metrics) {
+        FlightRecorder.addPeriodicEvent(StatisticsEvent.class, new Runnable() {
+            @Override
+            public void run() {
+                StatisticsEvent event = new StatisticsEvent();
+                event.bytesHashed = metrics.getBytesHashed();
+                event.blocksTransformed = metrics.getBlocksTransformed();
+                event.digestCalls = metrics.getDigestCalls();
+                event.stateCheckpoints = metrics.getStateCheckpoints();
+                event.stateRestores = metrics.getStateRestores();
+                event.commit();
+            }
+        });
+    }
+
+    @Override
+    public void checkpoint(long time, long count) {
+        CheckpointEvent event = new CheckpointEvent();
+        if (event.shouldCommit()) {
+            event.time = time;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void restore(long time, long count) {
+        RestoreEvent event = new RestoreEvent();
+        if (event.shouldCommit()) {
+            event.time = time;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    @Name("com.github.moaxcp.recmd5.Checkpoint")
+    @Label("MD5 Checkpoint")
+    @Description("The state of an MD5MessageDigest was copied or written")
+    @Category({"recMD5"})
+    @StackTrace(true)
+    static final class CheckpointEvent extends Event {
+
+        @Label("Time")
+        @Timespan
+        long time;
+
+        @Label("Bytes Hashed")
+        @DataAmount
+        long count;
+    }
+
+    @Name("com.github.moaxcp.recmd5.Restore")
+    @Label("MD5 Restore")
+    @Description("An MD5MessageDigest was created from a saved state")
+    @Category({"recMD5"})
+    @StackTrace(true)
+    static final class RestoreEvent extends Event {
+
+        @Label("Time")
+        @Timespan
+        long time;
+
+        @Label("Bytes Hashed")
+        @DataAmount
+        long count;
+    }
+
+    @Name("com.github.moaxcp.recmd5.Statistics")
+    @Label("MD5 Statistics")
+    @Description("Totals of MD5Metrics")
+    @Category({"recMD5"})
+    @StackTrace(false)
+    @Period("1 s")
+    static final class StatisticsEvent extends Event {
+
+        @Label("Bytes Hashed")
+        @DataAmount
+        long bytesHashed;
+
+        @Label("Blocks Transformed")
+        long blocksTransformed;
+
+        @Label("Digest Calls")
+        long digestCalls;
+
+        @Label("State Checkpoints")
+        long stateCheckpoints;
+
+        @Label("State Restores")
+        long stateRestores;
+    }
+}
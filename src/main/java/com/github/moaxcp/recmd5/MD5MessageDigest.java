@@ -24,6 +24,10 @@
 
 package com.github.moaxcp.recmd5;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.security.DigestException;
 import java.security.MessageDigest;
 
 /**
@@ -65,9 +69,10 @@ import java.security.MessageDigest;
  * later pass that state in a MD5MessageDigest constructor to reuse it.
  * <p>
  * Another goal that was in the original implementation is to allow a Digest have
- * a running display of the current updates. To do this use digest() and get the
- * hash string from the MD5State. The hash string will not be current unless
- * digest is called first.
+ * a running display of the current updates. To do this use digest() or one of
+ * the digestHex methods, which write the hex string into a buffer provided by
+ * the caller. MD5State.toString() also returns the hex string of the bytes
+ * hashed into that state.
  * <p>
  * Future developers are welcome to submit ideas, errors, or requests to
  * &lt;moaxcp@gmail.com&gt;
@@ -80,26 +85,36 @@ import java.security.MessageDigest;
  * @author Timothy W Macinta (twm@alum.mit.edu) (optimizations and bug fixes)
  * @author John Mercier &lt;moaxcp@gmail.com&gt;
  */
-public final class MD5MessageDigest extends MessageDigest {
+public final class MD5MessageDigest extends MessageDigest implements Cloneable {
 
     private MD5State state;
 
-    private static byte padding[] = {
-        (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
-    };
-    private static final char[] HEX_CHARS = {'0', '1', '2', '3',
-        '4', '5', '6', '7',
-        '8', '9', 'a', 'b',
-        'c', 'd', 'e', 'f',};
+    /**
+     * scratch space reused by every transform so updates do not allocate.
+     */
+    private int[] decodeBuffer = new int[16];
+
+    /**
+     * the result of the last digest and the count it was computed for. The
+     * cached result is returned while no bytes are added.
+     */
+    private MD5Words finalState = new MD5Words();
+    private long finalCount = -1;
+
+    /**
+     * a copy of the state taken every publishInterval bytes for other threads
+     * to read. nextPublish is the count at which the next copy is taken.
+     */
+    private volatile MD5State published;
+    private long publishInterval;
+    private long nextPublish = Long.MAX_VALUE;
 
     /**
      * creates a MessageDigest with the name "md5"
      */
     public MD5MessageDigest() {
         super("md5");
-        state = new MD5State();
+        state = new MD5State(64);
     }
     /**
      * creates a MessageDigest with the name "md5" and uses the state passed.
@@ -107,7 +122,28 @@ public final class MD5MessageDigest extends MessageDigest {
      */
     public MD5MessageDigest(MD5State state) {
         super("md5");
-        this.state = MD5State.copy(state);
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        this.state = MD5State.workingCopy(state);
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.restored(start, state.count);
+        }
+    }
+
+    /**
+     * creates a MessageDigest with the name "md5" from a state written by
+     * MD5State.writeTo or writeStateTo.
+     * @param checkpoint buffer positioned at the encoded state
+     * @throws java.nio.BufferUnderflowException if checkpoint does not hold a
+     * complete state.
+     * @throws IllegalArgumentException if the encoded state is not valid.
+     */
+    public MD5MessageDigest(ByteBuffer checkpoint) {
+        super("md5");
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        this.state = MD5State.workingCopy(MD5State.readFrom(checkpoint));
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.restored(start, state.count);
+        }
     }
 
     /**
@@ -115,26 +151,43 @@ public final class MD5MessageDigest extends MessageDigest {
      * @return copy of state
      */
     public MD5State getState() {
+        if (MD5Metrics.ENABLED) {
+            long start = System.nanoTime();
+            MD5State copy = MD5State.copy(state);
+            MD5Metrics.checkpointed(start, copy.count);
+            return copy;
+        }
         return MD5State.copy(state);
     }
 
-    private byte[] encode(int input[], int len) {
-        int i, j;
-        byte out[];
+    /**
+     * writes the state of the Digest in the format of MD5State.writeTo without
+     * copying it to an MD5State first.
+     * @param out the buffer to write to
+     * @throws java.nio.BufferOverflowException if out does not have room for
+     * the state.
+     */
+    public void writeStateTo(ByteBuffer out) {
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        state.writeTo(out);
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.checkpointed(start, state.count);
+        }
+    }
 
-        out = new byte[len];
+    static void encode(MD5Words input, byte[] out, int offset) {
+        int i, j;
 
-        for (i = j = 0; j < len; i++, j += 4) {
-            out[j] = (byte) (input[i] & 0xff);
-            out[j + 1] = (byte) ((input[i] >>> 8) & 0xff);
-            out[j + 2] = (byte) ((input[i] >>> 16) & 0xff);
-            out[j + 3] = (byte) ((input[i] >>> 24) & 0xff);
+        for (i = 0, j = offset; i < 4; i++, j += 4) {
+            int word = input.word(i);
+            out[j] = (byte) (word & 0xff);
+            out[j + 1] = (byte) ((word >>> 8) & 0xff);
+            out[j + 2] = (byte) ((word >>> 16) & 0xff);
+            out[j + 3] = (byte) ((word >>> 24) & 0xff);
         }
-
-        return out;
     }
 
-    private void decode(byte buffer[], int shift, int[] out) {
+    static void decode(byte buffer[], int shift, int[] out) {
         /*len += shift;
         for (int i = 0; shift < len; i++, shift += 4) {
         out[i] = ((int) (buffer[shift] & 0xff)) |
@@ -211,14 +264,35 @@ public final class MD5MessageDigest extends MessageDigest {
                 | (((int) buffer[shift + 63]) << 24);
     }
 
-    private void transform(int[] state, byte buffer[], int shift, int[] decode_buf) {
-        int a = state[0],
-                b = state[1],
-                c = state[2],
-                d = state[3],
-                x[] = decode_buf;
+    /**
+     * reads a 64 byte block from a ByteBuffer as 16 little-endian ints without
+     * changing the position or byte order of the buffer.
+     */
+    static void decode(ByteBuffer buffer, int shift, int[] out) {
+        if (buffer.order() == ByteOrder.LITTLE_ENDIAN) {
+            for (int i = 0; i < 16; i++, shift += 4) {
+                out[i] = buffer.getInt(shift);
+            }
+        } else {
+            for (int i = 0; i < 16; i++, shift += 4) {
+                out[i] = Integer.reverseBytes(buffer.getInt(shift));
+            }
+        }
+    }
 
+    private void transform(MD5State state, byte buffer[], int shift, int[] decode_buf) {
         decode(buffer, shift, decode_buf);
+        transform(state, decode_buf);
+    }
+
+    /**
+     * applies one block of already decoded input to state.
+     */
+    static void transform(MD5Words state, int[] x) {
+        int a = state.a,
+                b = state.b,
+                c = state.c,
+                d = state.d;
 
         /* Round 1 */
         a += ((b & c) | (~b & d)) + x[ 0] + 0xd76aa478; /* 1 */
@@ -371,40 +445,58 @@ public final class MD5MessageDigest extends MessageDigest {
         b += (d ^ (c | ~a)) + x[ 9] + 0xeb86d391; /* 64 */
         b = ((b << 21) | (b >>> 11)) + c;
 
-        state[0] += a;
-        state[1] += b;
-        state[2] += c;
-        state[3] += d;
+        state.a += a;
+        state.b += b;
+        state.c += c;
+        state.d += d;
     }
 
-    private void updateFinal(byte[] buffer, int offset, int length) {
+    @Override
+    protected void engineUpdate(byte input) {
+        int index = (int) (state.count & 0x3f);
+        state.count++;
+        state.buffer[index] = input;
+        if (index == 63) {
+            transform(state, state.buffer, 0, decodeBuffer);
+        }
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.updated(1, index == 63 ? 1 : 0);
+        }
+        if (state.count >= nextPublish) {
+            publish();
+        }
+    }
+
+    @Override
+    protected void engineUpdate(byte[] buffer, int offset, int length) {
         int index, partlen, i, start;
-        //finals = null;
 
         /* Length can be told to be shorter, but not inter */
-        if ((length - offset) > state.finalBuffer.length) {
-            length = state.finalBuffer.length - offset;
+        if ((length - offset) > buffer.length) {
+            length = buffer.length - offset;
         }
 
         /* compute number of bytes mod 64 */
 
-        index = (int) (state.finalCount & 0x3f);
-        state.finalCount += length;
+        index = (int) (state.count & 0x3f);
+        state.count += length;
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.updated(length, (index + length) >>> 6);
+        }
 
         partlen = 64 - index;
 
         if (length >= partlen) {
-            int[] decode_buf = new int[16];
             if (partlen == 64) {
                 partlen = 0;
             } else {
                 for (i = 0; i < partlen; i++) {
-                    state.finalBuffer[i + index] = buffer[i + offset];
+                    state.buffer[i + index] = buffer[i + offset];
                 }
-                transform(state.finalState, state.finalBuffer, 0, decode_buf);
+                transform(state, state.buffer, 0, decodeBuffer);
             }
             for (i = partlen; (i + 63) < length; i += 64) {
-                transform(state.finalState, buffer, i + offset, decode_buf);
+                transform(state, buffer, i + offset, decodeBuffer);
             }
             index = 0;
         } else {
@@ -415,95 +507,250 @@ public final class MD5MessageDigest extends MessageDigest {
         if (i < length) {
             start = i;
             for (; i < length; i++) {
-                state.finalBuffer[index + i - start] = buffer[i + offset];
+                state.buffer[index + i - start] = buffer[i + offset];
             }
         }
-    }
-
-    private void updateString(byte[] hash) {
-        char buf[] = new char[hash.length * 2];
-        for (int i = 0, x = 0; i < hash.length; i++) {
-            buf[x++] = HEX_CHARS[(hash[i] >>> 4) & 0xf];
-            buf[x++] = HEX_CHARS[hash[i] & 0xf];
+        if (state.count >= nextPublish) {
+            publish();
         }
-        StringBuilder hashString = state.getHash();
-        hashString.delete(0, hashString.length());
-        hashString.append(buf);
-    }
-
-    @Override
-    protected void engineUpdate(byte input) {
-        byte buffer[] = new byte[1];
-        buffer[0] = input;
-
-        engineUpdate(buffer, 0, 1);
     }
 
+    /**
+     * hashes the remaining bytes of input. Heap buffers use the array directly
+     * and other buffers, such as direct buffers, are read a block at a time in
+     * place instead of being copied to a temporary array first.
+     */
     @Override
-    protected void engineUpdate(byte[] buffer, int offset, int length) {
-        int index, partlen, i, start;
-
-        /* Length can be told to be shorter, but not inter */
-        if ((length - offset) > buffer.length) {
-            length = buffer.length - offset;
+    protected void engineUpdate(ByteBuffer input) {
+        int length = input.remaining();
+        if (length == 0) {
+            return;
+        }
+        if (input.hasArray()) {
+            int position = input.position();
+            engineUpdate(input.array(), input.arrayOffset() + position, length);
+            input.position(position + length);
+            return;
         }
 
-        /* compute number of bytes mod 64 */
-
-        index = (int) (state.count & 0x3f);
+        int index = (int) (state.count & 0x3f);
         state.count += length;
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.updated(length, (index + length) >>> 6);
+        }
 
-        partlen = 64 - index;
-
-        if (length >= partlen) {
-            int[] decode_buf = new int[16];
-            if (partlen == 64) {
-                partlen = 0;
-            } else {
-                for (i = 0; i < partlen; i++) {
-                    state.buffer[i + index] = buffer[i + offset];
+        if (index != 0) {
+            int partlen = Math.min(64 - index, length);
+            input.get(state.buffer, index, partlen);
+            length -= partlen;
+            if (index + partlen < 64) {
+                if (state.count >= nextPublish) {
+                    publish();
                 }
-                transform(state.state, state.buffer, 0, decode_buf);
+                return;
             }
-            for (i = partlen; (i + 63) < length; i += 64) {
-                transform(state.state, buffer, i + offset, decode_buf);
-            }
-            index = 0;
-        } else {
-            i = 0;
+            transform(state, state.buffer, 0, decodeBuffer);
         }
 
+        int position = input.position();
+        for (; length >= 64; length -= 64, position += 64) {
+            decode(input, position, decodeBuffer);
+            transform(state, decodeBuffer);
+        }
+        input.position(position);
+
         /* buffer remaining input */
-        if (i < length) {
-            start = i;
-            for (; i < length; i++) {
-                state.buffer[index + i - start] = buffer[i + offset];
-            }
+        if (length > 0) {
+            input.get(state.buffer, 0, length);
+        }
+        if (state.count >= nextPublish) {
+            publish();
         }
     }
 
+    /**
+     * publishes a copy of the state every interval bytes. Other threads read
+     * the latest copy with getPublishedState without locking and without
+     * slowing down the thread that updates this digest. A copy is published
+     * right away and after every reset.
+     * @param interval the number of bytes between copies, 0 to stop
+     * publishing
+     */
+    public void setPublishInterval(long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("interval must not be negative but was " + interval);
+        }
+        publishInterval = interval;
+        if (interval == 0) {
+            nextPublish = Long.MAX_VALUE;
+            published = null;
+        } else {
+            publish();
+        }
+    }
+
+    /**
+     * returns the last state published by the thread updating this digest.
+     * It can be called from any thread. The state is never changed after it
+     * is published, its count tells how far the input has been hashed and its
+     * toString the md5 up to there.
+     * @return the published state or null when setPublishInterval has not
+     * been called
+     */
+    public MD5State getPublishedState() {
+        return published;
+    }
+
+    private void publish() {
+        published = MD5State.copy(state);
+        nextPublish = state.count + publishInterval;
+    }
+
     @Override
     protected byte[] engineDigest() {
-        byte bits[];
-        int index, padlen;
-        state.copyToFinal();
+        byte[] hash = new byte[16];
+        digestInto(hash, 0);
+        return hash;
+    }
 
-        int[] count_ints = {(int) (state.finalCount << 3), (int) (state.finalCount >> 29)};
-        bits = encode(count_ints, 8);
+    /**
+     * writes the digest into buf without allocating.
+     */
+    @Override
+    protected int engineDigest(byte[] buf, int offset, int len) throws DigestException {
+        if (len < 16) {
+            throw new DigestException("partial digests not returned");
+        }
+        digestInto(buf, offset);
+        return 16;
+    }
 
-        index = (int) (state.finalCount & 0x3f);
-        padlen = (index < 56) ? (56 - index) : (120 - index);
+    @Override
+    protected int engineGetDigestLength() {
+        return 16;
+    }
 
-        updateFinal(padding, 0, padlen);
-        updateFinal(bits, 0, 8);
+    private void digestInto(byte[] hash, int offset) {
+        finish();
+        encode(finalState, hash, offset);
+    }
 
-        byte[] hash = encode(state.finalState, 16);
-        updateString(hash);
-        return hash;
+    /**
+     * writes the digest as 32 lower case hex characters into dst. Like digest
+     * this does not reset the MessageDigest.
+     * @param dst the array to write to
+     * @param offset the index of the first character
+     * @throws IndexOutOfBoundsException if there are less than 32 characters
+     * from offset to the end of dst
+     */
+    public void digestHex(char[] dst, int offset) {
+        finish();
+        Hex.encode(finalState, dst, offset);
+    }
+
+    /**
+     * writes the digest as 32 lower case ASCII hex characters into dst.
+     * @param dst the array to write to
+     * @param offset the index of the first character
+     * @throws IndexOutOfBoundsException if there are less than 32 bytes from
+     * offset to the end of dst
+     */
+    public void digestHex(byte[] dst, int offset) {
+        finish();
+        Hex.encode(finalState, dst, offset);
+    }
+
+    /**
+     * writes the digest as 32 lower case hex characters into dst and advances
+     * its position.
+     * @param dst the buffer to write to
+     * @throws java.nio.BufferOverflowException if dst has less than 32
+     * characters remaining
+     */
+    public void digestHex(CharBuffer dst) {
+        finish();
+        Hex.encode(finalState, dst);
+    }
+
+    /**
+     * computes the digest into finalState unless it is current.
+     */
+    private void finish() {
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.digested();
+        }
+        if (finalCount != state.count) {
+            finish(state, decodeBuffer, finalState);
+            finalCount = state.count;
+        }
+    }
+
+    /**
+     * pads the current block and applies it to a copy of the state. The
+     * padding and length are written straight into the decoded block so the
+     * buffered bytes are not copied first.
+     * @param state the running state, which is not changed
+     * @param x scratch space for the decoded block
+     * @param out receives the four words of the digest
+     */
+    static void finish(MD5State state, int[] x, MD5Words out) {
+        byte[] buffer = state.buffer;
+        int index = (int) (state.count & 0x3f);
+        long bits = state.count << 3;
+        out.a = state.a;
+        out.b = state.b;
+        out.c = state.c;
+        out.d = state.d;
+
+        for (int i = 0; i < 16; i++) {
+            x[i] = 0;
+        }
+        for (int i = 0; i < index; i++) {
+            x[i >>> 2] |= (buffer[i] & 0xff) << ((i & 3) << 3);
+        }
+        x[index >>> 2] |= 0x80 << ((index & 3) << 3);
+
+        if (index >= 56) {
+            transform(out, x);
+            for (int i = 0; i < 16; i++) {
+                x[i] = 0;
+            }
+        }
+        x[14] = (int) bits;
+        x[15] = (int) (bits >>> 32);
+        transform(out, x);
+    }
+
+    /**
+     * returns an independent copy of this digest. Both continue from the bytes
+     * hashed so far, so a digest can be forked after a shared prefix without
+     * hashing the prefix again. The copy does not publish states until
+     * setPublishInterval is called on it, so readers of the published state of
+     * this digest only ever see states of this digest.
+     * @return the copy
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        MD5MessageDigest clone = (MD5MessageDigest) super.clone();
+        clone.state = MD5State.workingCopy(state);
+        clone.published = null;
+        clone.publishInterval = 0;
+        clone.nextPublish = Long.MAX_VALUE;
+        clone.decodeBuffer = new int[16];
+        clone.finalState = new MD5Words();
+        clone.finalState.a = finalState.a;
+        clone.finalState.b = finalState.b;
+        clone.finalState.c = finalState.c;
+        clone.finalState.d = finalState.d;
+        return clone;
     }
 
     @Override
     protected void engineReset() {
-        state = new MD5State();
+        state.reset();
+        finalCount = -1;
+        if (publishInterval != 0) {
+            publish();
+        }
     }
 }
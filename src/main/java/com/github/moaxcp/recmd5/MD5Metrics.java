@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters for the work done by every MD5MessageDigest in the JVM. Metrics are
+ * off unless the system property recmd5.metrics is true at startup. The flag
+ * is a static final field, so when it is off the JIT removes the calls from
+ * MD5MessageDigest entirely.
+ * <p>
+ * When metrics are on the counters are published as the MXBean
+ * com.github.moaxcp.recmd5:type=MD5Metrics and, on JVMs with Flight Recorder,
+ * every checkpoint and restore is also recorded as a JFR event together with
+ * a periodic statistics event. The events carry the thread and stack trace,
+ * so checkpoint cost can be attributed to the code and session that caused
+ * it. The events live in MD5Events, which is compiled for Java 11 and only
+ * loaded by name, so the rest of the library still runs on Java 8.
+ *
+ * @author john
+ */
+public final class MD5Metrics implements MD5MetricsMXBean {
+
+    private static final Logger LOG = Logger.getLogger(MD5Metrics.class.getName());
+
+    /**
+     * true when the system property recmd5.metrics is true.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("recmd5.metrics");
+
+    private static final int BUCKETS = 65;
+    private static final MD5Metrics INSTANCE = new MD5Metrics();
+    private static final Events EVENTS = ENABLED ? loadEvents() : null;
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("com.github.moaxcp.recmd5:type=MD5Metrics"));
+            } catch (JMException ex) {
+                LOG.log(Level.WARNING, "could not register MD5Metrics MXBean", ex);
+            }
+        }
+    }
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private final LongAdder restores = new LongAdder();
+    private final AtomicLongArray checkpointLatency = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray restoreLatency = new AtomicLongArray(BUCKETS);
+
+    private MD5Metrics() {
+    }
+
+    /**
+     * @return the metrics of this JVM. The counters stay at 0 unless ENABLED
+     * is true.
+     */
+    public static MD5Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the Flight Recorder events or null if this JVM has no jdk.jfr
+     */
+    private static Events loadEvents() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (Events) Class.forName(MD5Metrics.class.getPackage().getName() + ".MD5Events")
+                    .getDeclaredConstructor(MD5Metrics.class).newInstance(INSTANCE);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            LOG.log(Level.FINE, "Flight Recorder events are not available", ex);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if checkpoints and restores are recorded as JFR events
+     */
+    static boolean hasEvents() {
+        return EVENTS != null;
+    }
+
+    static void updated(long length, long transformed) {
+        INSTANCE.bytes.add(length);
+        if (transformed > 0) {
+            INSTANCE.blocks.add(transformed);
+        }
+    }
+
+    static void digested() {
+        INSTANCE.digests.increment();
+    }
+
+    static void checkpointed(long start, long count) {
+        long time = System.nanoTime() - start;
+        INSTANCE.checkpoints.increment();
+        record(INSTANCE.checkpointLatency, time);
+        if (EVENTS != null) {
+            EVENTS.checkpoint(time, count);
+        }
+    }
+
+    static void restored(long start, long count) {
+        long time = System.nanoTime() - start;
+        INSTANCE.restores.increment();
+        record(INSTANCE.restoreLatency, time);
+        if (EVENTS != null) {
+            EVENTS.restore(time, count);
+        }
+    }
+
+    private static void record(AtomicLongArray histogram, long nanos) {
+        histogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+    }
+
+    private static long[] toArray(AtomicLongArray histogram) {
+        long[] values = new long[histogram.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = histogram.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public long getBytesHashed() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getBlocksTransformed() {
+        return blocks.sum();
+    }
+
+    @Override
+    public long getDigestCalls() {
+        return digests.sum();
+    }
+
+    @Override
+    public long getStateCheckpoints() {
+        return checkpoints.sum();
+    }
+
+    @Override
+    public long getStateRestores() {
+        return restores.sum();
+    }
+
+    @Override
+    public long[] getCheckpointLatencyHistogram() {
+        return toArray(checkpointLatency);
+    }
+
+    @Override
+    public long[] getRestoreLatencyHistogram() {
+        return toArray(restoreLatency);
+    }
+
+    @Override
+    public void reset() {
+        bytes.reset();
+        blocks.reset();
+        digests.reset();
+        checkpoints.reset();
+        restores.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            checkpointLatency.set(i, 0);
+            restoreLatency.set(i, 0);
+        }
+    }
+
+    /**
+     * receives every checkpoint and restore, implemented by MD5Events.
+     */
+    interface Events {
+
+        void checkpoint(long time, long count);
+
+        void restore(long time, long count);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+/**
+ * Management interface of MD5Metrics, registered as
+ * com.github.moaxcp.recmd5:type=MD5Metrics when metrics are enabled.
+ * <p>
+ * Latency histograms have one bucket per power of two nanoseconds. Bucket n
+ * counts calls that took from 2^(n-1) to 2^n - 1 nanoseconds, bucket 0 counts
+ * calls that took no measurable time.
+ *
+ * @author john
+ */
+public interface MD5MetricsMXBean {
+
+    /**
+     * @return bytes passed to update of all digests.
+     */
+    long getBytesHashed();
+
+    /**
+     * @return 64 byte blocks transformed by update, not counting padding.
+     */
+    long getBlocksTransformed();
+
+    /**
+     * @return calls to digest and digestHex.
+     */
+    long getDigestCalls();
+
+    /**
+     * @return states copied or written by getState and writeStateTo.
+     */
+    long getStateCheckpoints();
+
+    /**
+     * @return digests created from a saved state.
+     */
+    long getStateRestores();
+
+    /**
+     * @return the latency histogram of getState and writeStateTo.
+     */
+    long[] getCheckpointLatencyHistogram();
+
+    /**
+     * @return the latency histogram of creating a digest from a saved state.
+     */
+    long[] getRestoreLatencyHistogram();
+
+    /**
+     * sets all counters and histograms to 0.
+     */
+    void reset();
+}
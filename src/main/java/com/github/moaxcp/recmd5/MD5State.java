@@ -24,8 +24,17 @@
 
 package com.github.moaxcp.recmd5;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.zip.CRC32;
 
 /**
  * recoverable md5
@@ -60,8 +69,8 @@ import java.util.Arrays;
  * See http://www.twmacinta.com/myjava/fast_md5.php for more information
  * on this file.
  * <p>
- * Contains internal state of the MD5MessageDigest and the final state of the
- * MD5MessageDigest. Also holds the final string of the MD5 hash for convienence.
+ * Contains internal state of the MD5MessageDigest. toString returns the hex
+ * string of the MD5 hash for convienence.
  * <p>
  * "It is my hope that this library will be useful to programmers calculating
  * md5s for input from ranged protocols such as http and ftp." - John Mercier
@@ -70,96 +79,279 @@ import java.util.Arrays;
  * @author	Timothy W Macinta (twm@alum.mit.edu) (optimizations and bug fixes)
  * @author      John Mercier &lt;moaxcp@gmail.com&gt;
  **/
-public final class MD5State implements Serializable {
+public final class MD5State extends MD5Words implements Serializable {
+
+    private static final long serialVersionUID = -6995033595136033709L;
 
     /**
-     * 128-bit state
+     * version of the binary format written by writeTo.
      */
-    int state[];
+    static final byte ENCODING_VERSION = 1;
 
-    int finalState[];
+    /**
+     * bytes used by the binary format for everything but the partial block:
+     * version, count, state and checksum.
+     */
+    private static final int ENCODING_OVERHEAD = 1 + 8 + 16 + 4;
 
     /**
-     * 64-bit character count
+     * the largest size of the binary format, reached when 63 bytes of a block
+     * are waiting to be hashed.
      */
-    long count;
+    public static final int MAX_ENCODED_SIZE = ENCODING_OVERHEAD + 63;
+
+    private static final byte[] EMPTY = new byte[0];
 
-    long finalCount;
+    private static final ThreadLocal<CRC32> CRC = new ThreadLocal<CRC32>() {
+        @Override
+        protected CRC32 initialValue() {
+            return new CRC32();
+        }
+    };
 
     /**
-     * 64-byte buffer (512 bits) for storing to-be-hashed characters
+     * the serialized form of the earlier layout, which kept the state in
+     * arrays and had working copies for the final state. It is still written
+     * so both layouts can read each other.
      */
-    byte buffer[];
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("state", int[].class),
+        new ObjectStreamField("finalState", int[].class),
+        new ObjectStreamField("count", long.class),
+        new ObjectStreamField("finalCount", long.class),
+        new ObjectStreamField("buffer", byte[].class),
+        new ObjectStreamField("finalBuffer", byte[].class),
+        new ObjectStreamField("hash", StringBuilder.class)
+    };
 
-    byte finalBuffer[];
+    /**
+     * 64-bit character count
+     */
+    long count;
 
-    private StringBuilder hash;
+    /**
+     * the bytes of the current block that have not been hashed. The state of
+     * an MD5MessageDigest has room for a whole block (64 bytes), copies only
+     * keep the count &amp; 63 bytes in use.
+     */
+    byte buffer[];
 
     /**
-     * performs a deep copy of md5State
+     * performs a deep copy of md5State. Only the bytes of the current block
+     * that are in use are copied.
      * 
      * @param md5State the state to copy.
      * @return a copy of the md5State
      */
     public static MD5State copy(MD5State md5State) {
-        MD5State copy = new MD5State();
-        copy.count = md5State.count;
-        copy.finalCount = md5State.finalCount;
-        copy.hash.delete(0, md5State.hash.length());
-        copy.hash.append(md5State.hash);
-        copy.buffer = md5State.buffer.clone();
-        copy.state = md5State.state.clone();
-        copy.finalBuffer = md5State.finalBuffer.clone();
-        copy.finalState = md5State.finalState.clone();
-        return copy;
+        return new MD5State(md5State, (int) (md5State.count & 0x3f));
+    }
+
+    /**
+     * @return a copy of md5State that can be updated, with room for a whole
+     * block.
+     */
+    static MD5State workingCopy(MD5State md5State) {
+        return new MD5State(md5State, 64);
     }
 
     /**
      * creates a default MD5State
      */
     public MD5State() {
-        buffer = new byte[64];
-        finalBuffer = new byte[64];
+        this(0);
+    }
+
+    /**
+     * creates the initial state with a block buffer of bufferSize bytes.
+     */
+    MD5State(int bufferSize) {
+        reset();
+        buffer = bufferSize == 0 ? EMPTY : new byte[bufferSize];
+    }
+
+    private MD5State(MD5State md5State, int bufferSize) {
+        a = md5State.a;
+        b = md5State.b;
+        c = md5State.c;
+        d = md5State.d;
+        count = md5State.count;
+        buffer = bufferSize == 0 ? EMPTY : Arrays.copyOf(md5State.buffer, bufferSize);
+    }
+
+    /**
+     * returns this state to the initial state. The block buffer is kept, the
+     * bytes left in it are not used again.
+     */
+    void reset() {
+        a = 0x67452301;
+        b = 0xefcdab89;
+        c = 0x98badcfe;
+        d = 0x10325476;
         count = 0;
-        finalCount = 0;
-        state = new int[4];
-        finalState = new int[4];
+    }
 
-        state[0] = 0x67452301;
-        state[1] = 0xefcdab89;
-        state[2] = 0x98badcfe;
-        state[3] = 0x10325476;
+    /**
+     * @return the number of bytes that have been hashed into this state.
+     */
+    public long getCount() {
+        return count;
+    }
 
-        hash = new StringBuilder();
+    /**
+     * @return the number of bytes writeTo will write for this state.
+     */
+    public int encodedSize() {
+        return ENCODING_OVERHEAD + (int) (count & 0x3f);
+    }
 
+    /**
+     * writes this state in a compact binary format. Only the running state,
+     * the count and the bytes of the current block that have not been hashed
+     * yet are written, followed by a CRC32 of the record. The size is given by
+     * encodedSize and is never more than MAX_ENCODED_SIZE. Numbers are big
+     * endian whatever the order of out, and nothing is allocated.
+     *
+     * @param out the buffer to write to, its position is advanced by
+     * encodedSize.
+     * @throws java.nio.BufferOverflowException if out has less than
+     * encodedSize bytes remaining.
+     */
+    public void writeTo(ByteBuffer out) {
+        int partial = (int) (count & 0x3f);
+        int length = ENCODING_OVERHEAD + partial;
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        int start = out.position();
+        out.put(ENCODING_VERSION);
+        putInt(out, (int) (count >>> 32));
+        putInt(out, (int) count);
+        putInt(out, a);
+        putInt(out, b);
+        putInt(out, c);
+        putInt(out, d);
+        out.put(buffer, 0, partial);
+        putInt(out, checksum(out, start, length - 4));
     }
 
     /**
-     * copies the state to the final variables.
+     * reads a state written by writeTo. The position of in is only advanced
+     * when a complete and valid state was read.
+     *
+     * @param in the buffer to read from.
+     * @return the state.
+     * @throws BufferUnderflowException if in does not hold a complete state.
+     * @throws IllegalArgumentException if the version is unknown or the
+     * checksum does not match.
      */
-    void copyToFinal() {
-        if(finalState == null) {
-            finalState = new int[4];
+    public static MD5State readFrom(ByteBuffer in) {
+        int start = in.position();
+        if (in.remaining() < ENCODING_OVERHEAD) {
+            throw new BufferUnderflowException();
+        }
+        byte version = in.get(start);
+        if (version != ENCODING_VERSION) {
+            throw new IllegalArgumentException("unknown MD5State version " + version);
+        }
+        long count = ((long) getInt(in, start + 1) << 32) | (getInt(in, start + 5) & 0xffffffffL);
+        if (count < 0) {
+            throw new IllegalArgumentException("MD5State count is negative " + count);
         }
-        System.arraycopy(buffer, 0, finalBuffer, 0, finalBuffer.length);
-        System.arraycopy(state, 0, finalState, 0, finalState.length);
-        finalCount = count;
+        int partial = (int) (count & 0x3f);
+        int length = ENCODING_OVERHEAD + partial;
+        if (in.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        if (checksum(in, start, length - 4) != getInt(in, start + length - 4)) {
+            throw new IllegalArgumentException("MD5State checksum does not match");
+        }
+
+        MD5State state = new MD5State(partial);
+        state.a = getInt(in, start + 9);
+        state.b = getInt(in, start + 13);
+        state.c = getInt(in, start + 17);
+        state.d = getInt(in, start + 21);
+        state.count = count;
+        for (int i = 0; i < partial; i++) {
+            state.buffer[i] = in.get(start + 25 + i);
+        }
+        in.position(start + length);
+        return state;
     }
 
     /**
-     * @return the StringBuilder for this hash.
+     * @return the CRC32 of length bytes of buffer from start. The position and
+     * limit of buffer are left as they were.
      */
-    StringBuilder getHash() {
-        return hash;
+    private static int checksum(ByteBuffer buffer, int start, int length) {
+        int position = buffer.position();
+        int limit = buffer.limit();
+        CRC32 crc = CRC.get();
+        crc.reset();
+        buffer.position(start);
+        buffer.limit(start + length);
+        crc.update(buffer);
+        buffer.limit(limit);
+        buffer.position(position);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * puts value big endian whatever the order of buffer.
+     */
+    private static void putInt(ByteBuffer buffer, int value) {
+        buffer.put((byte) (value >>> 24));
+        buffer.put((byte) (value >>> 16));
+        buffer.put((byte) (value >>> 8));
+        buffer.put((byte) value);
+    }
+
+    private static int getInt(ByteBuffer buffer, int index) {
+        return ((buffer.get(index) & 0xff) << 24)
+                | ((buffer.get(index + 1) & 0xff) << 16)
+                | ((buffer.get(index + 2) & 0xff) << 8)
+                | (buffer.get(index + 3) & 0xff);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("state", new int[]{a, b, c, d});
+        fields.put("finalState", new int[4]);
+        fields.put("count", count);
+        fields.put("finalCount", 0L);
+        fields.put("buffer", Arrays.copyOf(buffer, 64));
+        fields.put("finalBuffer", new byte[64]);
+        // earlier releases copy and print hash, so it must not be null
+        fields.put("hash", new StringBuilder(toString()));
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        int[] state = (int[]) fields.get("state", null);
+        byte[] bytes = (byte[]) fields.get("buffer", null);
+        count = fields.get("count", 0L);
+        int partial = (int) (count & 0x3f);
+        if (state == null || state.length != 4 || count < 0 || bytes == null || bytes.length < partial) {
+            throw new InvalidObjectException("MD5State is incomplete");
+        }
+        a = state[0];
+        b = state[1];
+        c = state[2];
+        d = state[3];
+        buffer = partial == 0 ? EMPTY : Arrays.copyOf(bytes, partial);
     }
 
     /**
-     * returns the String representation of the hash. Users must use digest from
-     * MD5MessageDigest for this to be accurate.
+     * returns the hex String of the md5 of the bytes hashed into this state.
+     * The string is computed on each call from a copy of the state.
      */
     @Override
     public String toString() {
-        return hash.toString();
+        MD5Words words = new MD5Words();
+        MD5MessageDigest.finish(this, new int[16], words);
+        return Hex.toString(words);
     }
 
     /**
@@ -170,14 +362,20 @@ public final class MD5State implements Serializable {
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 89 * hash + Arrays.hashCode(this.state);
+        hash = 89 * hash + a;
+        hash = 89 * hash + b;
+        hash = 89 * hash + c;
+        hash = 89 * hash + d;
         hash = 89 * hash + (int) (this.count ^ (this.count >>> 32));
-        hash = 89 * hash + Arrays.hashCode(this.buffer);
+        for (int i = 0; i < (int) (count & 0x3f); i++) {
+            hash = 89 * hash + buffer[i];
+        }
         return hash;
     }
 
     /**
-     * Compares this Object with another object.
+     * Compares this Object with another object. Only the bytes of the current
+     * block that are in use are compared.
      * 
      * @param o the object to compare. Should be an MD5State.
      * @return true if o is an MD5State and it is equal to this object.
@@ -186,7 +384,15 @@ public final class MD5State implements Serializable {
     public boolean equals(Object o) {
         if(o instanceof MD5State) {
             MD5State s = (MD5State) o;
-            return Arrays.equals(this.buffer, s.buffer) && Arrays.equals(this.state, s.state) && this.count == s.count;
+            if (a != s.a || b != s.b || c != s.c || d != s.d || count != s.count) {
+                return false;
+            }
+            for (int i = 0; i < (int) (count & 0x3f); i++) {
+                if (buffer[i] != s.buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
         }
         return false;
     }
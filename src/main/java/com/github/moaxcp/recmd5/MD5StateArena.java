@@ -0,0 +1,415 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Holds the state of many MD5 sessions off the heap. Each session is a 96 byte
+ * record in a direct ByteBuffer slab and is addressed by an int handle, so an
+ * open session costs one record instead of an MD5State and its arrays. update,
+ * digest and checkpoint work on the record in place using the same transform
+ * as MD5MessageDigest.
+ * <p>
+ * A record holds the four state words, the count and the 64 byte block buffer.
+ * Freed records are reused before a new slab is allocated. allocate and free
+ * are synchronized. The other methods do not lock: a session must only be used
+ * by one thread at a time, and handing it to another thread needs the usual
+ * happens-before, for instance through a queue.
+ *
+ * @author john
+ */
+public final class MD5StateArena {
+
+    /**
+     * the number of bytes used by each session.
+     */
+    public static final int RECORD_SIZE = 96;
+
+    /**
+     * the number of records in a slab by default.
+     */
+    public static final int DEFAULT_SLAB_RECORDS = 16384;
+
+    private static final int STATE = 0;
+    private static final int COUNT = 16;
+    private static final int BUFFER = 24;
+    private static final int LINK = 88;
+    private static final int ALLOCATED = -2;
+    private static final int NONE = -1;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private final int slabShift;
+    private final int slabMask;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private int freeHead = NONE;
+    private int size;
+
+    /**
+     * creates an arena with DEFAULT_SLAB_RECORDS records per slab.
+     */
+    public MD5StateArena() {
+        this(DEFAULT_SLAB_RECORDS);
+    }
+
+    /**
+     * @param slabRecords the number of records in each slab, a power of two
+     */
+    public MD5StateArena(int slabRecords) {
+        if (slabRecords <= 0 || Integer.bitCount(slabRecords) != 1 || slabRecords > (1 << 24)) {
+            throw new IllegalArgumentException("slabRecords must be a power of two up to 2^24 but was " + slabRecords);
+        }
+        slabShift = Integer.numberOfTrailingZeros(slabRecords);
+        slabMask = slabRecords - 1;
+    }
+
+    /**
+     * @return a handle to a new session in the initial state
+     */
+    public int allocate() {
+        int handle;
+        synchronized (this) {
+            handle = freeHead;
+            if (handle == NONE) {
+                grow();
+                handle = freeHead;
+            }
+            ByteBuffer slab = slabs[handle >>> slabShift];
+            int base = (handle & slabMask) * RECORD_SIZE;
+            freeHead = slab.getInt(base + LINK);
+            slab.putInt(base + LINK, ALLOCATED);
+            size++;
+        }
+        reset(handle);
+        return handle;
+    }
+
+    /**
+     * @param state the state to start from
+     * @return a handle to a new session continuing from state
+     */
+    public int allocate(MD5State state) {
+        int handle = allocate();
+        restore(handle, state);
+        return handle;
+    }
+
+    /**
+     * @param checkpoint a state in the format of MD5State.writeTo, the position
+     * is advanced past it
+     * @return a handle to a new session continuing from the state
+     */
+    public int allocate(ByteBuffer checkpoint) {
+        return allocate(MD5State.readFrom(checkpoint));
+    }
+
+    /**
+     * frees a session, the handle may be returned by a later allocate.
+     *
+     * @param handle the session
+     */
+    public synchronized void free(int handle) {
+        ByteBuffer slab = slab(handle);
+        int base = base(slab, handle);
+        slab.putInt(base + LINK, freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    private void grow() {
+        ByteBuffer[] grown = new ByteBuffer[slabs.length + 1];
+        System.arraycopy(slabs, 0, grown, 0, slabs.length);
+        int records = slabMask + 1;
+        if ((long) grown.length * records > Integer.MAX_VALUE) {
+            throw new IllegalStateException("arena is full");
+        }
+        ByteBuffer slab = ByteBuffer.allocateDirect(records * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int first = slabs.length << slabShift;
+        for (int i = records - 1; i >= 0; i--) {
+            slab.putInt(i * RECORD_SIZE + LINK, freeHead);
+            freeHead = first + i;
+        }
+        grown[slabs.length] = slab;
+        slabs = grown;
+    }
+
+    /**
+     * @return the number of allocated sessions
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of sessions that fit in the allocated slabs
+     */
+    public int capacity() {
+        return slabs.length << slabShift;
+    }
+
+    private ByteBuffer slab(int handle) {
+        ByteBuffer[] current = slabs;
+        int index = handle >>> slabShift;
+        if (handle < 0 || index >= current.length) {
+            throw new IllegalArgumentException("invalid handle " + handle);
+        }
+        return current[index];
+    }
+
+    private int base(ByteBuffer slab, int handle) {
+        int base = (handle & slabMask) * RECORD_SIZE;
+        if (slab.getInt(base + LINK) != ALLOCATED) {
+            throw new IllegalArgumentException("handle " + handle + " is not allocated");
+        }
+        return base;
+    }
+
+    /**
+     * puts a session back in the initial state.
+     *
+     * @param handle the session
+     */
+    public void reset(int handle) {
+        ByteBuffer slab = slab(handle);
+        int base = base(slab, handle);
+        slab.putInt(base + STATE, 0x67452301);
+        slab.putInt(base + STATE + 4, 0xefcdab89);
+        slab.putInt(base + STATE + 8, 0x98badcfe);
+        slab.putInt(base + STATE + 12, 0x10325476);
+        slab.putLong(base + COUNT, 0);
+    }
+
+    /**
+     * @param handle the session
+     * @return the number of bytes hashed into the session
+     */
+    public long getCount(int handle) {
+        ByteBuffer slab = slab(handle);
+        return slab.getLong(base(slab, handle) + COUNT);
+    }
+
+    /**
+     * hashes length bytes of input starting at offset into a session.
+     *
+     * @param handle the session
+     * @param input the bytes to hash
+     * @param offset the first byte
+     * @param length the number of bytes
+     */
+    public void update(int handle, byte[] input, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > input.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + " length " + length + " array " + input.length);
+        }
+        ByteBuffer slab = slab(handle);
+        int base = base(slab, handle);
+        long count = slab.getLong(base + COUNT);
+        int index = (int) (count & 0x3f);
+        slab.putLong(base + COUNT, count + length);
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.updated(length, (index + length) >>> 6);
+        }
+
+        if (index != 0) {
+            int partlen = Math.min(64 - index, length);
+            for (int i = 0; i < partlen; i++) {
+                slab.put(base + BUFFER + index + i, input[offset + i]);
+            }
+            if (index + partlen < 64) {
+                return;
+            }
+            offset += partlen;
+            length -= partlen;
+        }
+
+        if (index != 0 || length >= 64) {
+            Scratch scratch = SCRATCH.get();
+            MD5Words state = scratch.words;
+            int[] x = scratch.x;
+            load(slab, base, state);
+            if (index != 0) {
+                MD5MessageDigest.decode(slab, base + BUFFER, x);
+                MD5MessageDigest.transform(state, x);
+            }
+            for (; length >= 64; offset += 64, length -= 64) {
+                MD5MessageDigest.decode(input, offset, x);
+                MD5MessageDigest.transform(state, x);
+            }
+            store(slab, base, state);
+        }
+
+        /* buffer remaining input */
+        for (int i = 0; i < length; i++) {
+            slab.put(base + BUFFER + i, input[offset + i]);
+        }
+    }
+
+    /**
+     * hashes the remaining bytes of input into a session and advances its
+     * position.
+     *
+     * @param handle the session
+     * @param input the bytes to hash
+     */
+    public void update(int handle, ByteBuffer input) {
+        if (input.hasArray()) {
+            int position = input.position();
+            update(handle, input.array(), input.arrayOffset() + position, input.remaining());
+            input.position(input.limit());
+            return;
+        }
+        byte[] chunk = SCRATCH.get().chunk;
+        while (input.hasRemaining()) {
+            int n = Math.min(chunk.length, input.remaining());
+            input.get(chunk, 0, n);
+            update(handle, chunk, 0, n);
+        }
+    }
+
+    /**
+     * writes the md5 of a session into out. The session is not changed and
+     * can be updated further.
+     *
+     * @param handle the session
+     * @param out receives 16 bytes
+     * @param offset the index of the first byte
+     */
+    public void digest(int handle, byte[] out, int offset) {
+        if (offset < 0 || offset > out.length - 16) {
+            throw new IndexOutOfBoundsException("offset " + offset + " array " + out.length);
+        }
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.digested();
+        }
+        Scratch scratch = SCRATCH.get();
+        read(handle, scratch.state);
+        MD5MessageDigest.finish(scratch.state, scratch.x, scratch.words);
+        MD5MessageDigest.encode(scratch.words, out, offset);
+    }
+
+    /**
+     * @param handle the session
+     * @return the md5 of the session
+     */
+    public byte[] digest(int handle) {
+        byte[] hash = new byte[16];
+        digest(handle, hash, 0);
+        return hash;
+    }
+
+    /**
+     * @param handle the session
+     * @return a copy of the state of the session
+     */
+    public MD5State getState(int handle) {
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        MD5State state = new MD5State((int) (getCount(handle) & 0x3f));
+        read(handle, state);
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.checkpointed(start, state.count);
+        }
+        return state;
+    }
+
+    /**
+     * writes the state of a session in the format of MD5State.writeTo without
+     * creating an MD5State.
+     *
+     * @param handle the session
+     * @param out the buffer to write to
+     */
+    public void writeStateTo(int handle, ByteBuffer out) {
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        MD5State state = SCRATCH.get().state;
+        read(handle, state);
+        state.writeTo(out);
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.checkpointed(start, state.count);
+        }
+    }
+
+    /**
+     * replaces the state of a session.
+     *
+     * @param handle the session
+     * @param state the state to continue from
+     */
+    public void restore(int handle, MD5State state) {
+        long start = MD5Metrics.ENABLED ? System.nanoTime() : 0;
+        ByteBuffer slab = slab(handle);
+        int base = base(slab, handle);
+        store(slab, base, state);
+        slab.putLong(base + COUNT, state.count);
+        int partial = (int) (state.count & 0x3f);
+        for (int i = 0; i < partial; i++) {
+            slab.put(base + BUFFER + i, state.buffer[i]);
+        }
+        if (MD5Metrics.ENABLED) {
+            MD5Metrics.restored(start, state.count);
+        }
+    }
+
+    /**
+     * reads the words, count and buffered bytes of a session into state.
+     */
+    private void read(int handle, MD5State state) {
+        ByteBuffer slab = slab(handle);
+        int base = base(slab, handle);
+        load(slab, base, state);
+        state.count = slab.getLong(base + COUNT);
+        int partial = (int) (state.count & 0x3f);
+        for (int i = 0; i < partial; i++) {
+            state.buffer[i] = slab.get(base + BUFFER + i);
+        }
+    }
+
+    private static void load(ByteBuffer slab, int base, MD5Words state) {
+        state.a = slab.getInt(base + STATE);
+        state.b = slab.getInt(base + STATE + 4);
+        state.c = slab.getInt(base + STATE + 8);
+        state.d = slab.getInt(base + STATE + 12);
+    }
+
+    private static void store(ByteBuffer slab, int base, MD5Words state) {
+        slab.putInt(base + STATE, state.a);
+        slab.putInt(base + STATE + 4, state.b);
+        slab.putInt(base + STATE + 8, state.c);
+        slab.putInt(base + STATE + 12, state.d);
+    }
+
+    private static final class Scratch {
+
+        final MD5State state = new MD5State(64);
+        final MD5Words words = new MD5Words();
+        final int[] x = new int[16];
+        final byte[] chunk = new byte[4096];
+    }
+}
@@ -1,7 +1,7 @@
 /*
  * The MIT License
  *
- * Copyright 2014 john.
+ * Copyright 2026 john.
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,40 +22,33 @@
  * THE SOFTWARE.
  */
 
-package com.github.moaxcp.recmd5.test;
-
-import com.github.moaxcp.recmd5.MD5MessageDigest;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+package com.github.moaxcp.recmd5;
 
 /**
+ * The four 32 bit words of an md5 chaining value. MD5State adds the count and
+ * the block buffer; on its own this holds a finished digest or the words a
+ * block is applied to, so transform and the encoders take it without needing a
+ * whole state.
  *
  * @author john
  */
-public class Test {
-
-    public static void main(String... args) {
-        MessageDigest expected = null;
-        MD5MessageDigest test = null;
-        try {
-            expected = MessageDigest.getInstance("md5");
-            test = new MD5MessageDigest();
-        } catch (NoSuchAlgorithmException ex) {
-            Logger.getLogger(Test.class.getName()).log(Level.SEVERE, null, ex);
-        }
+class MD5Words {
 
-        String message = "Hello world!";
+    int a, b, c, d;
 
-        expected.update(message.getBytes());
-        String s = new BigInteger(1, expected.digest()).toString(16);
-        if (s.length() == 31) {
-            s = "0" + s;
+    /**
+     * @return word i
+     */
+    final int word(int i) {
+        switch (i) {
+            case 0:
+                return a;
+            case 1:
+                return b;
+            case 2:
+                return c;
+            default:
+                return d;
         }
-        test.digest(message.getBytes());
-        System.out.println(s);
-        System.out.println(test.getState().toString());
     }
 }
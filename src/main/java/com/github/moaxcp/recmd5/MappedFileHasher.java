@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hashes files through memory mapped windows of a FileChannel. Files larger
+ * than 2 GiB are mapped one window at a time. A CheckpointListener can be
+ * given to receive the MD5State every checkpointInterval bytes, and a hash
+ * can be resumed from such a checkpoint so the start of the file does not
+ * need to be read again.
+ * <p>
+ * Mapped windows are released when they are garbage collected, so a small
+ * window size keeps the address space used for very large files low.
+ *
+ * @author john
+ */
+public final class MappedFileHasher {
+
+    /**
+     * the default size of each mapped region, 64 MiB.
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final long windowSize;
+    private final long checkpointInterval;
+    private final CheckpointListener listener;
+
+    /**
+     * creates a hasher that maps DEFAULT_WINDOW_SIZE bytes at a time and
+     * does not checkpoint.
+     */
+    public MappedFileHasher() {
+        this(DEFAULT_WINDOW_SIZE, 0, null);
+    }
+
+    /**
+     * creates a hasher that calls listener every checkpointInterval bytes.
+     *
+     * @param windowSize the number of bytes mapped at a time, at most
+     * Integer.MAX_VALUE.
+     * @param checkpointInterval bytes between checkpoints, 0 for none.
+     * @param listener receives the checkpoints, may be null when
+     * checkpointInterval is 0.
+     */
+    public MappedFileHasher(long windowSize, long checkpointInterval, CheckpointListener listener) {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("windowSize must be between 1 and " + Integer.MAX_VALUE + " but was " + windowSize);
+        }
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("checkpointInterval must not be negative but was " + checkpointInterval);
+        }
+        if (checkpointInterval > 0 && listener == null) {
+            throw new IllegalArgumentException("a listener is required when checkpointInterval is set");
+        }
+        this.windowSize = windowSize;
+        this.checkpointInterval = checkpointInterval;
+        this.listener = listener;
+    }
+
+    /**
+     * hashes the whole file.
+     *
+     * @param file the file to hash
+     * @return the md5 of the file
+     * @throws IOException if the file could not be read or a checkpoint could
+     * not be stored
+     */
+    public byte[] hash(Path file) throws IOException {
+        MD5MessageDigest digest = new MD5MessageDigest();
+        update(file, digest, 0);
+        return digest.digest();
+    }
+
+    /**
+     * continues a hash from a checkpoint.
+     *
+     * @param file the file to hash
+     * @param state the state saved for offset
+     * @param offset the position in file the state was saved at
+     * @return the md5 of the file
+     * @throws IOException if the file could not be read or a checkpoint could
+     * not be stored
+     */
+    public byte[] resume(Path file, MD5State state, long offset) throws IOException {
+        MD5MessageDigest digest = new MD5MessageDigest(state);
+        update(file, digest, offset);
+        return digest.digest();
+    }
+
+    /**
+     * updates digest with the contents of file starting at offset.
+     *
+     * @param file the file to read
+     * @param digest the digest to update
+     * @param offset the first byte of file to hash
+     * @return the file size, which is the offset hashing stopped at
+     * @throws IOException if the file could not be read or a checkpoint could
+     * not be stored
+     */
+    public long update(Path file, MD5MessageDigest digest, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset < 0 || offset > size) {
+                throw new IllegalArgumentException("offset " + offset + " is outside of " + file + " with size " + size);
+            }
+            long nextCheckpoint = nextCheckpoint(offset);
+            while (offset < size) {
+                long length = Math.min(windowSize, size - offset);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                long windowStart = offset;
+                long windowEnd = offset + length;
+                while (offset < windowEnd) {
+                    long end = Math.min(windowEnd, nextCheckpoint);
+                    window.limit((int) (end - windowStart));
+                    digest.update(window);
+                    offset = end;
+                    if (offset == nextCheckpoint) {
+                        listener.checkpoint(digest.getState(), offset);
+                        nextCheckpoint = nextCheckpoint(offset);
+                    }
+                }
+            }
+            return size;
+        }
+    }
+
+    private long nextCheckpoint(long offset) {
+        if (checkpointInterval == 0) {
+            return Long.MAX_VALUE;
+        }
+        return (offset / checkpointInterval + 1) * checkpointInterval;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Computes the ETag of a multipart upload as used by S3 compatible stores. The
+ * input is split into parts of partSize bytes, each part is hashed with its
+ * own MD5MessageDigest on a ForkJoinPool and the ETag is the md5 of the
+ * concatenated part digests followed by "-" and the number of parts.
+ * <p>
+ * Parts are numbered from 1 like upload parts. A PartCheckpointListener
+ * receives the state of a part every checkpointInterval bytes and when the
+ * part is finished. Passing those states back to hashParts resumes each part
+ * where it stopped, so a failure in one part does not mean hashing the others
+ * again. A finished part is resumed without reading the file at all.
+ *
+ * @author john
+ */
+public final class MultipartHasher {
+
+    /**
+     * receives checkpoints of single parts. Calls can come from several threads
+     * at once.
+     */
+    public interface PartCheckpointListener {
+
+        /**
+         * @param part the part number, starting at 1
+         * @param state the state of the part digest
+         * @param offset the position in the file the part has been hashed up to
+         * @throws IOException if the checkpoint could not be stored
+         */
+        void checkpoint(int part, MD5State state, long offset) throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long partSize;
+    private final ForkJoinPool pool;
+    private final long checkpointInterval;
+    private final PartCheckpointListener listener;
+
+    /**
+     * creates a hasher using the common pool without checkpoints.
+     *
+     * @param partSize the size of each part except the last one
+     */
+    public MultipartHasher(long partSize) {
+        this(partSize, ForkJoinPool.commonPool(), 0, null);
+    }
+
+    /**
+     * creates a hasher.
+     *
+     * @param partSize the size of each part except the last one
+     * @param pool runs the part digests
+     * @param checkpointInterval bytes between checkpoints within a part, 0 to
+     * only checkpoint finished parts
+     * @param listener receives checkpoints, may be null
+     */
+    public MultipartHasher(long partSize, ForkJoinPool pool, long checkpointInterval, PartCheckpointListener listener) {
+        if (partSize <= 0) {
+            throw new IllegalArgumentException("partSize must be positive but was " + partSize);
+        }
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("checkpointInterval must not be negative but was " + checkpointInterval);
+        }
+        this.partSize = partSize;
+        this.pool = pool;
+        this.checkpointInterval = checkpointInterval;
+        this.listener = listener;
+    }
+
+    /**
+     * @param file the file to hash
+     * @return the multipart ETag of file
+     * @throws IOException if the file could not be read
+     */
+    public String etag(Path file) throws IOException {
+        return etag(hashParts(file, Collections.<Integer, MD5State>emptyMap()));
+    }
+
+    /**
+     * hashes each part of file, continuing from the states in resume.
+     *
+     * @param file the file to hash
+     * @param resume saved states by part number, parts without a state are
+     * hashed from their start
+     * @return the digest of each part, index 0 holds part 1
+     * @throws IOException if the file could not be read or a checkpoint could
+     * not be stored
+     */
+    public byte[][] hashParts(Path file, Map<Integer, MD5State> resume) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parts = (int) Math.max(1, (size + partSize - 1) / partSize);
+            List<Callable<byte[]>> tasks = new ArrayList<>(parts);
+            for (int part = 1; part <= parts; part++) {
+                long start = (part - 1) * partSize;
+                long end = Math.min(size, start + partSize);
+                tasks.add(new PartTask(channel, part, start, end, resume.get(part)));
+            }
+            byte[][] digests = new byte[parts][];
+            List<Future<byte[]>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < parts; i++) {
+                digests[i] = futures.get(i).get();
+            }
+            return digests;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while hashing " + file);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException("could not hash " + file, ex.getCause());
+        }
+    }
+
+    /**
+     * @param partDigests the md5 of each part in order
+     * @return the multipart ETag for the parts
+     */
+    public static String etag(byte[][] partDigests) {
+        MD5MessageDigest digest = new MD5MessageDigest();
+        for (byte[] partDigest : partDigests) {
+            digest.update(partDigest);
+        }
+        char[] etag = new char[32];
+        digest.digestHex(etag, 0);
+        return new String(etag) + "-" + partDigests.length;
+    }
+
+    private final class PartTask implements Callable<byte[]> {
+
+        private final FileChannel channel;
+        private final int part;
+        private final long start;
+        private final long end;
+        private final MD5State state;
+
+        PartTask(FileChannel channel, int part, long start, long end, MD5State state) {
+            this.channel = channel;
+            this.part = part;
+            this.start = start;
+            this.end = end;
+            this.state = state;
+        }
+
+        @Override
+        public byte[] call() throws IOException {
+            MD5MessageDigest digest = state == null ? new MD5MessageDigest() : new MD5MessageDigest(state);
+            long position = state == null ? start : start + state.getCount();
+            if (position > end) {
+                throw new IllegalArgumentException("state for part " + part + " is past the end of the part");
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(1, end - position)));
+            long nextCheckpoint = checkpointInterval == 0 || listener == null ? end : Math.min(end, position + checkpointInterval);
+            boolean read = false;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), nextCheckpoint - position));
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    throw new IOException("file ended at " + position + " while hashing part " + part);
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += n;
+                read = true;
+                if (position == nextCheckpoint && position < end) {
+                    listener.checkpoint(part, digest.getState(), position);
+                    nextCheckpoint = Math.min(end, position + checkpointInterval);
+                }
+            }
+            if (read && listener != null) {
+                listener.checkpoint(part, digest.getState(), position);
+            }
+            return digest.digest();
+        }
+    }
+}
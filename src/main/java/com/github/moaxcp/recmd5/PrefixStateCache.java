@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the MD5State reached after hashing a prefix so that messages starting
+ * with the same prefix, such as a fixed header or a salt, do not hash it again.
+ * newDigest returns an MD5MessageDigest that has already consumed the prefix;
+ * the caller only updates it with the rest of the message.
+ * <p>
+ * A prefix is identified either by its content or by a key chosen by the
+ * caller. Content keys keep a copy of the prefix and compare it byte by byte,
+ * caller keys only need equals and hashCode and let a long prefix be looked up
+ * without touching its bytes. At most maxEntries states are kept, the least
+ * recently used one is evicted first. All methods are synchronized, the prefix
+ * of a miss is hashed outside the lock.
+ *
+ * @author john
+ */
+public final class PrefixStateCache {
+
+    private final int maxEntries;
+    private final Map<Object, MD5State> states;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries the number of prefix states to keep
+     */
+    public PrefixStateCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        states = new LinkedHashMap<Object, MD5State>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, MD5State> eldest) {
+                if (size() > PrefixStateCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * returns a digest that has hashed prefix, using the content of prefix as
+     * the key. prefix is only copied when its state is not cached.
+     *
+     * @param prefix the prefix
+     * @return a new digest positioned after prefix
+     */
+    public MD5MessageDigest newDigest(byte[] prefix) {
+        ContentKey key = new ContentKey(prefix);
+        MD5State state = lookup(key);
+        if (state != null) {
+            return new MD5MessageDigest(state);
+        }
+        return hash(key.copy(), prefix);
+    }
+
+    /**
+     * returns a digest that has hashed the prefix identified by key. prefix is
+     * only read when the state for key is not cached.
+     *
+     * @param key identifies prefix
+     * @param prefix the prefix
+     * @return a new digest positioned after prefix
+     */
+    public MD5MessageDigest newDigest(Object key, byte[] prefix) {
+        MD5State state = lookup(key);
+        if (state != null) {
+            return new MD5MessageDigest(state);
+        }
+        return hash(key, prefix);
+    }
+
+    private synchronized MD5State lookup(Object key) {
+        MD5State state = states.get(key);
+        if (state != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return state;
+    }
+
+    private MD5MessageDigest hash(Object key, byte[] prefix) {
+        MD5MessageDigest digest = new MD5MessageDigest();
+        digest.update(prefix);
+        putState(key, digest.getState());
+        return digest;
+    }
+
+    /**
+     * @param key identifies the prefix
+     * @return a copy of the state after the prefix or null if it is not cached.
+     * Does not count as a hit or miss.
+     */
+    public synchronized MD5State getState(Object key) {
+        MD5State state = states.get(key);
+        return state == null ? null : MD5State.copy(state);
+    }
+
+    /**
+     * caches a state reached some other way, for instance one read from a
+     * checkpoint.
+     *
+     * @param key identifies the prefix
+     * @param state the state after the prefix, it is copied
+     */
+    public void putState(Object key, MD5State state) {
+        MD5State copy = MD5State.copy(state);
+        synchronized (this) {
+            states.put(key, copy);
+        }
+    }
+
+    /**
+     * @param key identifies the prefix
+     */
+    public synchronized void remove(Object key) {
+        states.remove(key);
+    }
+
+    /**
+     * removes all states, the statistics are kept.
+     */
+    public synchronized void clear() {
+        states.clear();
+    }
+
+    /**
+     * @return the number of cached states
+     */
+    public synchronized int size() {
+        return states.size();
+    }
+
+    /**
+     * @return the number of newDigest calls that found the prefix state
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of newDigest calls that had to hash the prefix
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of states evicted to stay within maxEntries
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static final class ContentKey {
+
+        private final byte[] bytes;
+        private final int hash;
+
+        /**
+         * wraps bytes without copying them, for lookups.
+         */
+        ContentKey(byte[] bytes) {
+            this(bytes, Arrays.hashCode(bytes));
+        }
+
+        private ContentKey(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        /**
+         * @return a key holding its own copy of the bytes, for storing in the
+         * map.
+         */
+        ContentKey copy() {
+            return new ContentKey(bytes.clone(), hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ContentKey && Arrays.equals(bytes, ((ContentKey) o).bytes);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.Provider;
+
+/**
+ * A JCA Provider named "RecMD5" offering MD5MessageDigest as the MD5
+ * MessageDigest. After Security.addProvider(new RecMD5Provider()),
+ * MessageDigest.getInstance("MD5", "RecMD5") returns an MD5Digest. The
+ * provider is also listed for ServiceLoader so it can be named in the
+ * security.provider entries of java.security on Java 9 and later.
+ *
+ * @author john
+ */
+public final class RecMD5Provider extends Provider {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * the name of this provider.
+     */
+    public static final String NAME = "RecMD5";
+
+    /**
+     * creates the provider.
+     */
+    @SuppressWarnings("deprecation")
+    public RecMD5Provider() {
+        super(NAME, 1.0, "RecMD5 provider (recoverable MD5 MessageDigest)");
+        put("MessageDigest.MD5", MD5Digest.class.getName());
+        put("MessageDigest.MD5 ImplementedIn", "Software");
+        put("Alg.Alias.MessageDigest.1.2.840.113549.2.5", "MD5");
+        put("Alg.Alias.MessageDigest.OID.1.2.840.113549.2.5", "MD5");
+    }
+
+    /**
+     * The MD5 MessageDigest of this provider. MD5MessageDigest keeps its state
+     * after digest so a running hash can be displayed; callers of
+     * MessageDigest.getInstance expect digest to reset, so this class hashes
+     * with an MD5MessageDigest and resets it after every digest.
+     */
+    public static final class MD5Digest extends MessageDigest implements Cloneable {
+
+        private MD5MessageDigest digest = new MD5MessageDigest();
+
+        /**
+         * creates a digest in its initial state.
+         */
+        public MD5Digest() {
+            super("MD5");
+        }
+
+        /**
+         * @return a copy of the current state, see MD5MessageDigest.getState
+         */
+        public MD5State getState() {
+            return digest.getState();
+        }
+
+        @Override
+        protected int engineGetDigestLength() {
+            return 16;
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {
+            digest.update(input);
+        }
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int len) {
+            digest.update(input, offset, len);
+        }
+
+        @Override
+        protected void engineUpdate(ByteBuffer input) {
+            digest.update(input);
+        }
+
+        @Override
+        protected byte[] engineDigest() {
+            byte[] result = digest.digest();
+            digest.reset();
+            return result;
+        }
+
+        @Override
+        protected int engineDigest(byte[] buf, int offset, int len) throws DigestException {
+            int length = digest.digest(buf, offset, len);
+            digest.reset();
+            return length;
+        }
+
+        @Override
+        protected void engineReset() {
+            digest.reset();
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            MD5Digest clone = (MD5Digest) super.clone();
+            clone.digest = (MD5MessageDigest) digest.clone();
+            return clone;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A WritableByteChannel that hashes everything written through it with an
+ * MD5MessageDigest and passes checkpoints to a CheckpointListener every
+ * interval bytes or intervalMillis milliseconds. Only the bytes the underlying
+ * channel accepted are hashed. Direct buffers are hashed in place.
+ * <p>
+ * A last checkpoint is taken on close if bytes were written since the
+ * previous one.
+ *
+ * @author john
+ */
+public class RecoverableDigestChannel implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final Checkpointer checkpointer;
+
+    /**
+     * hashes from the start of channel.
+     *
+     * @param channel the channel to write
+     * @param interval bytes between checkpoints, 0 for none
+     * @param intervalMillis milliseconds between checkpoints, 0 for none
+     * @param listener receives checkpoints, may be null when both intervals
+     * are 0
+     */
+    public RecoverableDigestChannel(WritableByteChannel channel, long interval, long intervalMillis, CheckpointListener listener) {
+        this.channel = channel;
+        checkpointer = new Checkpointer(new MD5MessageDigest(), 0, interval, intervalMillis, listener);
+    }
+
+    /**
+     * continues hashing from a checkpoint.
+     *
+     * @param channel the channel to write, continuing at offset
+     * @param state the state saved at offset
+     * @param offset the offset of the first byte written to channel
+     * @param interval bytes between checkpoints, 0 for none
+     * @param intervalMillis milliseconds between checkpoints, 0 for none
+     * @param listener receives checkpoints, may be null when both intervals
+     * are 0
+     */
+    public RecoverableDigestChannel(WritableByteChannel channel, MD5State state, long offset, long interval, long intervalMillis, CheckpointListener listener) {
+        this.channel = channel;
+        checkpointer = new Checkpointer(new MD5MessageDigest(state), offset, interval, intervalMillis, listener);
+    }
+
+    /**
+     * @return the digest of the bytes written so far. Calling digest on it
+     * does not reset it.
+     */
+    public MD5MessageDigest getMessageDigest() {
+        return checkpointer.getDigest();
+    }
+
+    /**
+     * @return the offset of the next byte to be written.
+     */
+    public long getOffset() {
+        return checkpointer.getOffset();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int start = src.position();
+        int n = channel.write(src);
+        if (n > 0) {
+            int end = src.position();
+            int limit = src.limit();
+            src.position(start);
+            src.limit(end);
+            checkpointer.getDigest().update(src);
+            src.limit(limit);
+            checkpointer.advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            checkpointer.finish();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that hashes everything read through it with an
+ * MD5MessageDigest and passes checkpoints to a CheckpointListener every
+ * interval bytes or intervalMillis milliseconds. A stream can be created from
+ * a saved checkpoint when the underlying stream is positioned at the offset of
+ * that checkpoint, for example with an http range request.
+ * <p>
+ * Bytes skipped with skip are read and hashed so the digest stays correct.
+ * Mark and reset are not supported. A last checkpoint is taken on close if
+ * bytes were read since the previous one.
+ *
+ * @author john
+ */
+public class RecoverableDigestInputStream extends FilterInputStream {
+
+    private final Checkpointer checkpointer;
+
+    /**
+     * hashes in from its start.
+     *
+     * @param in the stream to read
+     * @param interval bytes between checkpoints, 0 for none
+     * @param intervalMillis milliseconds between checkpoints, 0 for none
+     * @param listener receives checkpoints, may be null when both intervals
+     * are 0
+     */
+    public RecoverableDigestInputStream(InputStream in, long interval, long intervalMillis, CheckpointListener listener) {
+        super(in);
+        checkpointer = new Checkpointer(new MD5MessageDigest(), 0, interval, intervalMillis, listener);
+    }
+
+    /**
+     * continues hashing from a checkpoint.
+     *
+     * @param in the stream to read, positioned at offset
+     * @param state the state saved at offset
+     * @param offset the offset of the first byte read from in
+     * @param interval bytes between checkpoints, 0 for none
+     * @param intervalMillis milliseconds between checkpoints, 0 for none
+     * @param listener receives checkpoints, may be null when both intervals
+     * are 0
+     */
+    public RecoverableDigestInputStream(InputStream in, MD5State state, long offset, long interval, long intervalMillis, CheckpointListener listener) {
+        super(in);
+        checkpointer = new Checkpointer(new MD5MessageDigest(state), offset, interval, intervalMillis, listener);
+    }
+
+    /**
+     * @return the digest of the bytes read so far. Calling digest on it does
+     * not reset it.
+     */
+    public MD5MessageDigest getMessageDigest() {
+        return checkpointer.getDigest();
+    }
+
+    /**
+     * @return the offset of the next byte to be read.
+     */
+    public long getOffset() {
+        return checkpointer.getOffset();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            checkpointer.getDigest().update((byte) b);
+            checkpointer.advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            checkpointer.getDigest().update(b, off, n);
+            checkpointer.advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] buffer = new byte[(int) Math.min(8192, n)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            checkpointer.finish();
+        } finally {
+            super.close();
+        }
+    }
+}
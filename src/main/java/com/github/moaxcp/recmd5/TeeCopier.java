@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copies bytes and hashes them in the same pass, so the data is read once.
+ * Each buffer read from the source is hashed and then written to the
+ * destination.
+ * <p>
+ * Every checkpointInterval bytes the destination is forced and a
+ * CheckpointListener receives the state. The offset of a checkpoint is always
+ * covered by the destination on disk. The copy of a file to a file keeps its
+ * checkpoint in a file that is replaced atomically. When that checkpoint file
+ * exists, the copy continues from it: the destination is truncated to the
+ * checkpoint offset, the source is read from there and the hash continues
+ * from the checkpoint state. The checkpoint file is deleted when the copy is
+ * complete.
+ *
+ * @author john
+ */
+public final class TeeCopier {
+
+    /**
+     * the default size of the copy buffer, 1 MiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * the default number of bytes between checkpoints, 64 MiB.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 64L * 1024 * 1024;
+
+    private final int bufferSize;
+    private final long checkpointInterval;
+
+    /**
+     * creates a copier with DEFAULT_BUFFER_SIZE and
+     * DEFAULT_CHECKPOINT_INTERVAL.
+     */
+    public TeeCopier() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param bufferSize the number of bytes read at a time
+     * @param checkpointInterval bytes between checkpoints, 0 for none
+     */
+    public TeeCopier(int bufferSize, long checkpointInterval) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive but was " + bufferSize);
+        }
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("checkpointInterval must not be negative but was " + checkpointInterval);
+        }
+        this.bufferSize = bufferSize;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * copies source to destination, continuing an interrupted copy when
+     * checkpointFile exists.
+     *
+     * @param source the file to copy
+     * @param destination the copy, created if it does not exist
+     * @param checkpointFile holds the last checkpoint while the copy runs
+     * @return the md5 of source
+     * @throws IOException if a file could not be read or written or the
+     * checkpoint does not match the destination
+     */
+    public byte[] copy(Path source, Path destination, final Path checkpointFile) throws IOException {
+        MD5State state = Files.exists(checkpointFile) ? readCheckpoint(checkpointFile) : null;
+        long offset = state == null ? 0 : state.getCount();
+        byte[] digest;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (out.size() < offset || in.size() < offset) {
+                throw new IOException("checkpoint at " + offset + " is past the end of " + (in.size() < offset ? source : destination));
+            }
+            out.truncate(offset);
+            in.position(offset);
+            out.position(offset);
+            digest = copy(in, out, state, new CheckpointListener() {
+                @Override
+                public void checkpoint(MD5State state, long offset) throws IOException {
+                    writeCheckpoint(checkpointFile, state);
+                }
+            });
+            out.force(true);
+        }
+        Files.deleteIfExists(checkpointFile);
+        CheckpointJournal.forceDirectory(checkpointFile);
+        return digest;
+    }
+
+    /**
+     * copies the remaining bytes of source to destination. To continue an
+     * earlier copy, source and destination must be positioned at the count of
+     * state.
+     *
+     * @param source the channel to read
+     * @param destination the channel to write, forced before each checkpoint
+     * when it is a FileChannel
+     * @param state the state to continue from, null to start a new hash
+     * @param listener receives checkpoints, may be null
+     * @return the md5 of all bytes including those hashed into state
+     * @throws IOException if a channel failed or a checkpoint could not be
+     * stored
+     */
+    public byte[] copy(ReadableByteChannel source, WritableByteChannel destination, MD5State state, CheckpointListener listener) throws IOException {
+        MD5MessageDigest digest = state == null ? new MD5MessageDigest() : new MD5MessageDigest(state);
+        long offset = state == null ? 0 : state.getCount();
+        long nextCheckpoint = nextCheckpoint(offset, listener);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        while (true) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), nextCheckpoint - offset));
+            int n = source.read(buffer);
+            if (n < 0) {
+                break;
+            }
+            buffer.flip();
+            digest.update(buffer);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                destination.write(buffer);
+            }
+            offset += n;
+            if (offset == nextCheckpoint) {
+                if (destination instanceof FileChannel) {
+                    ((FileChannel) destination).force(false);
+                }
+                listener.checkpoint(digest.getState(), offset);
+                nextCheckpoint = nextCheckpoint(offset, listener);
+            }
+        }
+        return digest.digest();
+    }
+
+    private long nextCheckpoint(long offset, CheckpointListener listener) {
+        if (checkpointInterval == 0 || listener == null) {
+            return Long.MAX_VALUE;
+        }
+        return (offset / checkpointInterval + 1) * checkpointInterval;
+    }
+
+    private static void writeCheckpoint(Path file, MD5State state) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer encoded = ByteBuffer.allocate(state.encodedSize());
+        state.writeTo(encoded);
+        encoded.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        CheckpointJournal.forceDirectory(file);
+    }
+
+    private static MD5State readCheckpoint(Path file) throws IOException {
+        try {
+            return MD5State.readFrom(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException(file + " is not a valid checkpoint", ex);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.tool;
+
+import com.github.moaxcp.recmd5.CheckpointJournal;
+import com.github.moaxcp.recmd5.CheckpointListener;
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import com.github.moaxcp.recmd5.MD5State;
+import com.github.moaxcp.recmd5.MappedFileHasher;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashes every regular file below a directory and records the results in a
+ * manifest that can be checked with "md5sum -c". Large files are checkpointed
+ * while they are hashed, so when the tool is stopped and started again with
+ * the same manifest, finished files are skipped and partly hashed files
+ * continue from their last checkpoint instead of from the start.
+ * <p>
+ * Next to the manifest a CheckpointJournal named manifest + ".journal" holds
+ * the MD5State of files that are in progress. A checkpoint is keyed by the
+ * relative path, the size and the modification time of the file, so it is
+ * only used while the file is unchanged. The offset to continue from is the
+ * count of the state since every file is hashed from its first byte.
+ * Checkpoints of changed or removed files and of files already in the
+ * manifest are removed from the journal.
+ * <p>
+ * Files are hashed on virtual threads when the JVM has them and on platform
+ * threads otherwise. In both cases at most concurrency files are read at the
+ * same time.
+ * <p>
+ * Usage: BulkHasher directory manifest [concurrency [checkpointMiB]]
+ *
+ * @author john
+ */
+public class BulkHasher {
+
+    private static final Logger LOG = Logger.getLogger(BulkHasher.class.getName());
+
+    /**
+     * the default number of bytes between checkpoints, 64 MiB.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 64L * 1024 * 1024;
+
+    private final Path root;
+    private final Path manifestFile;
+    private final int concurrency;
+    private final long checkpointInterval;
+
+    private final AtomicInteger hashed = new AtomicInteger();
+    private final AtomicInteger resumed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * @param root the directory to hash
+     * @param manifestFile the manifest, created if it does not exist
+     * @param concurrency the maximum number of files read at the same time
+     * @param checkpointInterval bytes between checkpoints of a file
+     */
+    public BulkHasher(Path root, Path manifestFile, int concurrency, long checkpointInterval) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive but was " + concurrency);
+        }
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive but was " + checkpointInterval);
+        }
+        this.root = root;
+        this.manifestFile = manifestFile.toAbsolutePath();
+        this.concurrency = concurrency;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * hashes all files that are not in the manifest yet.
+     *
+     * @throws IOException if the directory could not be walked or the
+     * manifest could not be written. Files that can not be read are logged
+     * and counted by getFailed.
+     */
+    public void run() throws IOException {
+        final Semaphore permits = new Semaphore(concurrency);
+        final ExecutorService executor = newExecutor();
+        final Path journalFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".journal");
+        try (Manifest manifest = new Manifest(manifestFile);
+                CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            final Map<String, List<String>> checkpoints = checkpoints(journal);
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(final Path file, BasicFileAttributes attrs) throws IOException {
+                        if (!attrs.isRegularFile() || isOutput(file)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        final String key = root.relativize(file).toString();
+                        final List<String> ids = checkpoints.remove(key);
+                        if (manifest.contains(key)) {
+                            remove(journal, ids, null);
+                            skipped.incrementAndGet();
+                            return FileVisitResult.CONTINUE;
+                        }
+                        final String id = checkpointId(key, attrs);
+                        acquire(permits);
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    remove(journal, ids, id);
+                                    hash(file, key, id, manifest, journal);
+                                } catch (IOException | RuntimeException ex) {
+                                    failed.incrementAndGet();
+                                    LOG.log(Level.WARNING, "could not hash " + file, ex);
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                        });
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                        checkpoints.remove(root.relativize(file).toString());
+                        failed.incrementAndGet();
+                        LOG.log(Level.WARNING, "could not read " + file, ex);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } finally {
+                executor.shutdown();
+                awaitTermination(executor);
+            }
+            // whatever was not visited belongs to files that are gone
+            for (List<String> ids : checkpoints.values()) {
+                remove(journal, ids, null);
+            }
+        }
+    }
+
+    /**
+     * @return the id of the checkpoints of the file at key with attrs
+     */
+    static String checkpointId(String key, BasicFileAttributes attrs) {
+        return key + '|' + attrs.size() + '|' + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the checkpoint ids in journal by relative path. Ids that are not
+     * from checkpointId are removed.
+     */
+    private static Map<String, List<String>> checkpoints(CheckpointJournal journal) throws IOException {
+        Map<String, List<String>> checkpoints = new HashMap<String, List<String>>();
+        for (String id : journal.getStates().keySet()) {
+            int modified = id.lastIndexOf('|');
+            int size = modified < 0 ? -1 : id.lastIndexOf('|', modified - 1);
+            if (size < 0) {
+                journal.remove(id);
+                continue;
+            }
+            String key = id.substring(0, size);
+            List<String> ids = checkpoints.get(key);
+            if (ids == null) {
+                ids = new ArrayList<String>();
+                checkpoints.put(key, ids);
+            }
+            ids.add(id);
+        }
+        return checkpoints;
+    }
+
+    /**
+     * removes ids other than keep from journal.
+     */
+    private static void remove(CheckpointJournal journal, List<String> ids, String keep) throws IOException {
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            if (!id.equals(keep)) {
+                journal.remove(id);
+            }
+        }
+    }
+
+    private void hash(Path file, String key, final String id, Manifest manifest, final CheckpointJournal journal) throws IOException {
+        MD5State state = journal.getState(id);
+        long offset = 0;
+        MD5MessageDigest digest;
+        if (state != null) {
+            digest = new MD5MessageDigest(state);
+            offset = state.getCount();
+            resumed.incrementAndGet();
+        } else {
+            digest = new MD5MessageDigest();
+        }
+        MappedFileHasher hasher = new MappedFileHasher(MappedFileHasher.DEFAULT_WINDOW_SIZE, checkpointInterval, new CheckpointListener() {
+            @Override
+            public void checkpoint(MD5State state, long offset) throws IOException {
+                journal.append(id, state);
+            }
+        });
+        hasher.update(file, digest, offset);
+        char[] hex = new char[32];
+        digest.digestHex(hex, 0);
+        manifest.add(key, new String(hex));
+        journal.remove(id);
+        hashed.incrementAndGet();
+    }
+
+    private boolean isOutput(Path file) {
+        Path absolute = file.toAbsolutePath();
+        return absolute.equals(manifestFile) || absolute.getParent().equals(manifestFile.getParent())
+                && absolute.getFileName().toString().startsWith(manifestFile.getFileName() + ".");
+    }
+
+    /**
+     * @return a virtual thread per task executor when the JVM supports it, a
+     * cached thread pool otherwise. The number of running tasks is limited by
+     * the caller.
+     */
+    private ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to hash");
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) throws InterruptedIOException {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.fine("waiting for files to be hashed");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for files to be hashed");
+        }
+    }
+
+    /**
+     * @return the number of files hashed by run, including resumed files.
+     */
+    public int getHashed() {
+        return hashed.get();
+    }
+
+    /**
+     * @return the number of files that continued from a checkpoint.
+     */
+    public int getResumed() {
+        return resumed.get();
+    }
+
+    /**
+     * @return the number of files skipped because they were in the manifest.
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * @return the number of files that could not be hashed.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("usage: BulkHasher directory manifest [concurrency [checkpointMiB]]");
+            System.exit(2);
+        }
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long checkpointInterval = args.length > 3 ? Long.parseLong(args[3]) * 1024 * 1024 : DEFAULT_CHECKPOINT_INTERVAL;
+        BulkHasher hasher = new BulkHasher(Paths.get(args[0]), Paths.get(args[1]), concurrency, checkpointInterval);
+        hasher.run();
+        System.out.println("hashed " + hasher.getHashed() + " files (" + hasher.getResumed() + " resumed), skipped "
+                + hasher.getSkipped() + ", failed " + hasher.getFailed());
+        if (hasher.getFailed() > 0) {
+            System.exit(1);
+        }
+    }
+}
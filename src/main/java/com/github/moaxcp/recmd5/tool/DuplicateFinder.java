@@ -0,0 +1,446 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.tool;
+
+import com.github.moaxcp.recmd5.CheckpointJournal;
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import com.github.moaxcp.recmd5.MD5State;
+import com.github.moaxcp.recmd5.MappedFileHasher;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds files with the same content below a directory while reading as little
+ * as possible. Files are grouped by size first. Files that share a size are
+ * grouped by the md5 of their first headSize bytes. Only files that still
+ * share a group are hashed completely, and that hash continues from the
+ * MD5State of the first stage so the head of a file is never read twice.
+ * <p>
+ * Each size group is a task on a ForkJoinPool of concurrency threads and the
+ * files of a group are hashed as subtasks, so large groups and many small
+ * groups both keep the threads busy.
+ * <p>
+ * The states of both stages can be kept in a CheckpointJournal. An entry is
+ * keyed by the path relative to the directory, the size and the modification
+ * time of the file, so a later run reuses the results of files that did not
+ * change and continues the full hash of a file from its cached head state.
+ * Entries of files that changed or disappeared are removed at the start of a
+ * run.
+ * <p>
+ * Usage: DuplicateFinder directory [cache [headKiB [concurrency]]]
+ *
+ * @author john
+ */
+public class DuplicateFinder {
+
+    private static final Logger LOG = Logger.getLogger(DuplicateFinder.class.getName());
+
+    /**
+     * the default number of bytes hashed in the first stage, 64 KiB.
+     */
+    public static final int DEFAULT_HEAD_SIZE = 64 * 1024;
+
+    private static final String HEAD = "head";
+    private static final String FULL = "full";
+
+    private final Path root;
+    private final Path cacheFile;
+    private final int headSize;
+    private final int concurrency;
+
+    private final AtomicInteger headsHashed = new AtomicInteger();
+    private final AtomicInteger fullHashed = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /**
+     * @param root the directory to search
+     * @param cacheFile the journal holding stage results, null for none
+     * @param headSize the number of bytes hashed in the first stage
+     * @param concurrency the number of files read at the same time
+     */
+    public DuplicateFinder(Path root, Path cacheFile, int headSize, int concurrency) {
+        if (headSize <= 0) {
+            throw new IllegalArgumentException("headSize must be positive but was " + headSize);
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive but was " + concurrency);
+        }
+        this.root = root;
+        this.cacheFile = cacheFile == null ? null : cacheFile.toAbsolutePath().normalize();
+        this.headSize = headSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * searches the directory.
+     *
+     * @return the groups of files with the same content by their md5 in hex.
+     * Each group holds at least two files sorted by path.
+     * @throws IOException if the directory could not be walked or the cache
+     * could not be read or written. Files that can not be read are logged and
+     * counted by getFailed.
+     */
+    public SortedMap<String, List<Path>> run() throws IOException {
+        List<Candidate> files = walk();
+        Map<Long, List<Candidate>> bySize = new HashMap<Long, List<Candidate>>();
+        for (Candidate file : files) {
+            add(bySize, file.size, file);
+        }
+
+        SortedMap<String, List<Path>> duplicates = new TreeMap<String, List<Path>>();
+        CheckpointJournal cache = cacheFile == null ? null : new CheckpointJournal(cacheFile);
+        ForkJoinPool pool = new ForkJoinPool(concurrency);
+        try {
+            if (cache != null) {
+                removeStale(cache, files);
+            }
+            List<SizeGroup> groups = new ArrayList<SizeGroup>();
+            for (List<Candidate> group : bySize.values()) {
+                if (group.size() > 1) {
+                    groups.add(new SizeGroup(group, cache));
+                }
+            }
+            for (SizeGroup group : groups) {
+                pool.execute(group);
+            }
+            for (SizeGroup group : groups) {
+                group.join();
+                duplicates.putAll(group.duplicates);
+            }
+        } finally {
+            pool.shutdown();
+            if (cache != null) {
+                cache.close();
+            }
+        }
+        return duplicates;
+    }
+
+    private List<Candidate> walk() throws IOException {
+        final List<Candidate> files = new ArrayList<Candidate>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !isCache(file)) {
+                    files.add(new Candidate(file, root.relativize(file).toString(), attrs.size(), attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS)));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                failed.incrementAndGet();
+                LOG.log(Level.WARNING, "could not read " + file, ex);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private boolean isCache(Path file) {
+        if (cacheFile == null) {
+            return false;
+        }
+        // the journal and the temporary file it writes while compacting
+        Path absolute = file.toAbsolutePath().normalize();
+        String name = cacheFile.getFileName().toString();
+        return absolute.equals(cacheFile) || absolute.equals(cacheFile.resolveSibling(name + ".compact"));
+    }
+
+    private static void removeStale(CheckpointJournal cache, List<Candidate> files) throws IOException {
+        Set<String> current = new HashSet<String>();
+        for (Candidate file : files) {
+            current.add(file.id);
+        }
+        for (String key : cache.getStates().keySet()) {
+            int stage = key.lastIndexOf('|');
+            if (stage < 0 || !current.contains(key.substring(0, stage))) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    private static <K> void add(Map<K, List<Candidate>> groups, K key, Candidate file) {
+        List<Candidate> group = groups.get(key);
+        if (group == null) {
+            group = new ArrayList<Candidate>();
+            groups.put(key, group);
+        }
+        group.add(file);
+    }
+
+    /**
+     * the stages for files of one size.
+     */
+    private final class SizeGroup extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Candidate> files;
+        private final CheckpointJournal cache;
+        private final Map<String, List<Path>> duplicates = new HashMap<String, List<Path>>();
+
+        SizeGroup(List<Candidate> files, CheckpointJournal cache) {
+            this.files = files;
+            this.cache = cache;
+        }
+
+        @Override
+        protected void compute() {
+            List<Stage> heads = new ArrayList<Stage>();
+            for (Candidate file : files) {
+                heads.add(new Stage(file, false, cache));
+            }
+            invokeAll(heads);
+            Map<String, List<Candidate>> byHead = new HashMap<String, List<Candidate>>();
+            for (Candidate file : files) {
+                if (file.head != null) {
+                    add(byHead, file.head, file);
+                }
+            }
+
+            List<Stage> full = new ArrayList<Stage>();
+            for (List<Candidate> group : byHead.values()) {
+                if (group.size() > 1) {
+                    for (Candidate file : group) {
+                        full.add(new Stage(file, true, cache));
+                    }
+                }
+            }
+            invokeAll(full);
+            Map<String, List<Candidate>> byFull = new HashMap<String, List<Candidate>>();
+            for (Stage stage : full) {
+                if (stage.file.full != null) {
+                    add(byFull, stage.file.full, stage.file);
+                }
+            }
+            for (Map.Entry<String, List<Candidate>> group : byFull.entrySet()) {
+                if (group.getValue().size() > 1) {
+                    List<Path> paths = new ArrayList<Path>();
+                    for (Candidate file : group.getValue()) {
+                        paths.add(file.path);
+                    }
+                    Collections.sort(paths);
+                    duplicates.put(group.getKey(), paths);
+                }
+            }
+        }
+    }
+
+    /**
+     * hashes one stage of one file.
+     */
+    private final class Stage extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Candidate file;
+        private final boolean full;
+        private final CheckpointJournal cache;
+
+        Stage(Candidate file, boolean full, CheckpointJournal cache) {
+            this.file = file;
+            this.full = full;
+            this.cache = cache;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (full) {
+                    file.hashFull(cache);
+                } else {
+                    file.hashHead(cache);
+                }
+            } catch (IOException | RuntimeException ex) {
+                failed.incrementAndGet();
+                LOG.log(Level.WARNING, "could not hash " + file.path, ex);
+            }
+        }
+    }
+
+    /**
+     * a file and the results of its stages.
+     */
+    private final class Candidate {
+
+        final Path path;
+        final long size;
+        final String id;
+        final long headLength;
+        MD5MessageDigest digest;
+        String head;
+        String full;
+
+        Candidate(Path path, String key, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            id = key + '|' + size + '|' + modified;
+            headLength = Math.min(size, headSize);
+        }
+
+        void hashHead(CheckpointJournal cache) throws IOException {
+            MD5State state = cache == null ? null : cache.getState(id + '|' + HEAD);
+            if (state != null && state.getCount() == headLength) {
+                digest = new MD5MessageDigest(state);
+                cacheHits.incrementAndGet();
+            } else {
+                digest = new MD5MessageDigest();
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    ByteBuffer buffer = ByteBuffer.allocate((int) headLength);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, buffer.position()) < 0) {
+                            throw new EOFException(path + " is shorter than " + size + " bytes");
+                        }
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                }
+                bytesRead.addAndGet(headLength);
+                headsHashed.incrementAndGet();
+                if (cache != null) {
+                    cache.append(id + '|' + HEAD, digest.getState());
+                }
+            }
+            head = hex(digest);
+            if (headLength == size) {
+                full = head;
+            }
+        }
+
+        void hashFull(CheckpointJournal cache) throws IOException {
+            if (full != null) {
+                return;
+            }
+            MD5State state = cache == null ? null : cache.getState(id + '|' + FULL);
+            if (state != null && state.getCount() == size) {
+                full = state.toString();
+                cacheHits.incrementAndGet();
+                return;
+            }
+            long end = new MappedFileHasher().update(path, digest, headLength);
+            if (end != size) {
+                throw new IOException(path + " changed size from " + size + " to " + end);
+            }
+            bytesRead.addAndGet(size - headLength);
+            fullHashed.incrementAndGet();
+            if (cache != null) {
+                cache.append(id + '|' + FULL, digest.getState());
+            }
+            full = hex(digest);
+        }
+    }
+
+    private static String hex(MD5MessageDigest digest) {
+        char[] hex = new char[32];
+        digest.digestHex(hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * @return the number of files whose head was read.
+     */
+    public int getHeadsHashed() {
+        return headsHashed.get();
+    }
+
+    /**
+     * @return the number of files that were read to the end.
+     */
+    public int getFullHashed() {
+        return fullHashed.get();
+    }
+
+    /**
+     * @return the number of stages taken from the cache.
+     */
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return the number of files that could not be hashed.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of bytes read from files.
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("usage: DuplicateFinder directory [cache [headKiB [concurrency]]]");
+            System.exit(2);
+        }
+        Path cache = args.length > 1 ? Paths.get(args[1]) : null;
+        int headSize = args.length > 2 ? Integer.parseInt(args[2]) * 1024 : DEFAULT_HEAD_SIZE;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        DuplicateFinder finder = new DuplicateFinder(Paths.get(args[0]), cache, headSize, concurrency);
+        for (Map.Entry<String, List<Path>> group : finder.run().entrySet()) {
+            for (Path file : group.getValue()) {
+                System.out.println(group.getKey() + "  " + file);
+            }
+            System.out.println();
+        }
+        System.err.println("read " + finder.getBytesRead() + " bytes, " + finder.getHeadsHashed() + " heads, "
+                + finder.getFullHashed() + " full files, " + finder.getCacheHits() + " from cache, failed "
+                + finder.getFailed());
+        if (finder.getFailed() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.tool;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The list of finished files written by BulkHasher, in the format of md5sum so
+ * it can be checked with "md5sum -c". Each line is forced to disk before add
+ * returns. A line cut short by a crash is removed when the manifest is opened.
+ *
+ * @author john
+ */
+final class Manifest implements Closeable {
+
+    private final FileChannel channel;
+    private final Map<String, String> hashes = new HashMap<>();
+
+    Manifest(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end = 0;
+        channel.position(0);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        long size = channel.size();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long next = end + line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (next > size) {
+                break;
+            }
+            parse(line);
+            end = next;
+        }
+        if (end < size) {
+            channel.truncate(end);
+        }
+        channel.position(end);
+    }
+
+    synchronized boolean contains(String path) {
+        return hashes.containsKey(path);
+    }
+
+    synchronized String get(String path) {
+        return hashes.get(path);
+    }
+
+    synchronized void add(String path, String hash) throws IOException {
+        String escaped = escape(path);
+        String line = (escaped.equals(path) ? "" : "\\") + hash + "  " + escaped + "\n";
+        ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        hashes.put(path, hash);
+    }
+
+    synchronized Map<String, String> getHashes() {
+        return new HashMap<>(hashes);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void parse(String line) {
+        boolean escaped = line.startsWith("\\");
+        if (escaped) {
+            line = line.substring(1);
+        }
+        if (line.length() < 35 || line.charAt(32) != ' ' || line.charAt(33) != ' ') {
+            return;
+        }
+        String path = line.substring(34);
+        hashes.put(escaped ? unescape(path) : path, line.substring(0, 32));
+    }
+
+    /**
+     * escapes names the way md5sum does. When a name holds a backslash or
+     * newline they are escaped and the line starts with a backslash.
+     */
+    private static String escape(String path) {
+        if (path.indexOf('\\') < 0 && path.indexOf('\n') < 0) {
+            return path;
+        }
+        return path.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String unescape(String path) {
+        StringBuilder builder = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 1 < path.length()) {
+                char next = path.charAt(++i);
+                builder.append(next == 'n' ? '\n' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class AsyncFileHasherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AsyncFileHasher hasher = new AsyncFileHasher(4096, 3, 2);
+
+    @After
+    public void tearDown() {
+        hasher.close();
+    }
+
+    private Path createFile(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return Files.write(folder.getRoot().toPath().resolve(name), bytes);
+    }
+
+    private byte[] javaMD5(Path file) throws Exception {
+        return MessageDigest.getInstance("md5").digest(Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testHash() throws Exception {
+        Path empty = createFile("empty", 0);
+        Path small = createFile("small", 100);
+        Path large = createFile("large", 1000001);
+        assertArrayEquals(javaMD5(empty), hasher.hash(empty).get());
+        assertArrayEquals(javaMD5(small), hasher.hash(small).get());
+        assertArrayEquals(javaMD5(large), hasher.hash(large).get());
+    }
+
+    @Test
+    public void testCheckpointAndResume() throws Exception {
+        Path file = createFile("file", 100000);
+        final List<MD5State> states = new ArrayList<>();
+        final List<Long> offsets = new ArrayList<>();
+        byte[] hash = hasher.hash(file, 10000, new CheckpointListener() {
+            @Override
+            public void checkpoint(MD5State state, long offset) {
+                states.add(state);
+                offsets.add(offset);
+            }
+        }).get();
+        assertArrayEquals(javaMD5(file), hash);
+        assertEquals(100000, (long) offsets.get(offsets.size() - 1));
+
+        int checkpoint = offsets.size() / 2;
+        assertArrayEquals(hash, hasher.resume(file, states.get(checkpoint), offsets.get(checkpoint), 0, null).get());
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        try {
+            hasher.hash(folder.getRoot().toPath().resolve("missing")).get();
+            fail("missing file was hashed");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class CheckpointIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] bytes;
+    private Path file;
+
+    private void createFile(int size) throws IOException {
+        bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        file = folder.newFile("input").toPath();
+        Files.write(file, bytes);
+    }
+
+    private byte[] expected(int length) throws Exception {
+        return MessageDigest.getInstance("md5").digest(Arrays.copyOf(bytes, length));
+    }
+
+    @Test
+    public void testPrefixDigest() throws Exception {
+        createFile(100000);
+        CheckpointIndex index = CheckpointIndex.build(file, 8192);
+        assertEquals(12, index.size());
+        assertEquals(98304, index.getLength());
+        for (int length : new int[]{0, 1, 8191, 8192, 8193, 50000, 98304, 100000}) {
+            assertArrayEquals(expected(length), index.prefixDigest(file, length));
+        }
+        assertEquals(16384, index.floor(20000).getCount());
+        assertEquals(0, index.floor(100).getCount());
+    }
+
+    @Test
+    public void testRewind() throws Exception {
+        createFile(50000);
+        CheckpointIndex index = CheckpointIndex.build(file, 4096);
+        MD5MessageDigest digest = index.rewind(file, 10000);
+        assertEquals(10000, digest.getState().getCount());
+        assertEquals(8192, index.getLength());
+        digest.update(bytes, 10000, 40000);
+        assertArrayEquals(expected(50000), digest.digest());
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        createFile(70000);
+        CheckpointIndex index = CheckpointIndex.build(file, 10000);
+        Path sidecar = CheckpointIndex.sidecar(file);
+        index.write(sidecar, file);
+        CheckpointIndex read = CheckpointIndex.read(sidecar, file);
+        assertEquals(10000, read.getInterval());
+        assertEquals(index.size(), read.size());
+        assertEquals(index.floor(65000).toString(), read.floor(65000).toString());
+        assertArrayEquals(expected(65000), read.prefixDigest(file, 65000));
+
+        byte[] sidecarBytes = Files.readAllBytes(sidecar);
+        Files.write(sidecar, Arrays.copyOf(sidecarBytes, sidecarBytes.length - 1));
+        try {
+            CheckpointIndex.read(sidecar, file);
+            fail("truncated index was read");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testChangedDataFile() throws Exception {
+        createFile(70000);
+        Path sidecar = CheckpointIndex.sidecar(file);
+        CheckpointIndex.build(file, 10000).write(sidecar, file);
+
+        bytes[100] ^= 1;
+        Files.write(file, bytes);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        try {
+            CheckpointIndex.read(sidecar, file);
+            fail("index of changed file was read");
+        } catch (IOException ex) {
+            // expected
+        }
+
+        CheckpointIndex.build(file, 10000).write(sidecar, file);
+        Files.write(file, new byte[10], StandardOpenOption.APPEND);
+        try {
+            CheckpointIndex.read(sidecar, file);
+            fail("index of grown file was read");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+}
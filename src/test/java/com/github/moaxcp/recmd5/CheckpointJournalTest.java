@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class CheckpointJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MD5State state(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        MD5MessageDigest digest = new MD5MessageDigest();
+        digest.update(bytes);
+        return digest.getState();
+    }
+
+    @Test
+    public void testConcurrentAppendAndRecover() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal");
+        final CheckpointJournal journal = new CheckpointJournal(file);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<MD5State>> futures = new ArrayList<Future<MD5State>>();
+        for (int i = 0; i < 32; i++) {
+            final String id = "session" + i;
+            futures.add(executor.submit(new Callable<MD5State>() {
+                @Override
+                public MD5State call() throws Exception {
+                    MD5State last = null;
+                    for (int j = 0; j < 20; j++) {
+                        last = state(j * 7);
+                        journal.append(id, last);
+                    }
+                    return last;
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(futures.get(i).get(), journal.getState("session" + i));
+        }
+        executor.shutdown();
+        journal.remove("session0");
+        journal.close();
+
+        CheckpointJournal recovered = new CheckpointJournal(file);
+        Map<String, MD5State> states = recovered.getStates();
+        assertEquals(31, states.size());
+        assertNull(states.get("session0"));
+        for (int i = 1; i < futures.size(); i++) {
+            assertEquals(futures.get(i).get(), states.get("session" + i));
+        }
+        recovered.close();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal");
+        CheckpointJournal journal = new CheckpointJournal(file, 50);
+        MD5State last = null;
+        for (int i = 0; i < 200; i++) {
+            last = state(i);
+            journal.append("a", last);
+            journal.append("b", state(1));
+        }
+        assertTrue(Files.size(file) < 50 * (MD5State.MAX_ENCODED_SIZE + 20));
+        journal.close();
+
+        CheckpointJournal recovered = new CheckpointJournal(file);
+        assertEquals(last, recovered.getState("a"));
+        assertEquals(2, recovered.getStates().size());
+        recovered.close();
+    }
+
+    @Test
+    public void testData() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal");
+        CheckpointJournal journal = new CheckpointJournal(file, 10);
+        MD5State a = state(10);
+        journal.append("a", a, new byte[] {1, 2, 3});
+        journal.append("b", state(20), new byte[] {4});
+        journal.append("b", state(30));
+        journal.close();
+
+        CheckpointJournal recovered = new CheckpointJournal(file, 10);
+        assertEquals(a, recovered.getState("a"));
+        assertArrayEquals(new byte[] {1, 2, 3}, recovered.getData("a"));
+        assertNull(recovered.getData("b"));
+        for (int i = 0; i < 20; i++) {
+            recovered.append("c", state(i));
+        }
+        recovered.remove("c");
+        recovered.close();
+
+        recovered = new CheckpointJournal(file);
+        assertArrayEquals(new byte[] {1, 2, 3}, recovered.getData("a"));
+        recovered.remove("a");
+        assertNull(recovered.getData("a"));
+        recovered.close();
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal");
+        CheckpointJournal journal = new CheckpointJournal(file);
+        MD5State first = state(10);
+        journal.append("a", first);
+        journal.append("a", state(20));
+        journal.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        CheckpointJournal recovered = new CheckpointJournal(file);
+        assertEquals(first, recovered.getState("a"));
+        MD5State next = state(30);
+        recovered.append("a", next);
+        recovered.close();
+
+        recovered = new CheckpointJournal(file);
+        assertEquals(next, recovered.getState("a"));
+        recovered.close();
+    }
+}
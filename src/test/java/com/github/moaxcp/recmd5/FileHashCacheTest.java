@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class FileHashCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random();
+    private Path cacheFile;
+
+    @Before
+    public void setUp() {
+        cacheFile = folder.getRoot().toPath().resolve("cache");
+    }
+
+    private byte[] getBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(folder.getRoot().toPath().resolve(name), bytes);
+    }
+
+    private static byte[] md5(Path file) throws Exception {
+        return MessageDigest.getInstance("md5").digest(Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testHitAndAppend() throws Exception {
+        Path file = write("data", getBytes(100000));
+        try (FileHashCache cache = new FileHashCache(cacheFile, 10)) {
+            assertArrayEquals(md5(file), cache.digest(file));
+            assertArrayEquals(md5(file), cache.digest(file));
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getHits());
+
+            Files.write(file, getBytes(5000), StandardOpenOption.APPEND);
+            assertArrayEquals(md5(file), cache.digest(file));
+            assertEquals(1, cache.getAppendHits());
+
+            byte[] rewritten = Files.readAllBytes(file);
+            rewritten[rewritten.length - 10] ^= 1;
+            Files.write(file, rewritten);
+            Files.write(file, getBytes(10), StandardOpenOption.APPEND);
+            assertArrayEquals(md5(file), cache.digest(file));
+            assertEquals(1, cache.getAppendHits());
+            assertEquals(2, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        Path one = write("one", getBytes(1000));
+        Path two = write("two", getBytes(70));
+        try (FileHashCache cache = new FileHashCache(cacheFile, 10)) {
+            cache.digest(one);
+            cache.digest(two);
+        }
+        try (FileHashCache cache = new FileHashCache(cacheFile, 10)) {
+            assertEquals(2, cache.size());
+            assertArrayEquals(md5(one), cache.digest(one));
+            assertArrayEquals(md5(two), cache.digest(two));
+            assertEquals(2, cache.getHits());
+            Files.write(two, getBytes(100), StandardOpenOption.APPEND);
+            assertArrayEquals(md5(two), cache.digest(two));
+            assertEquals(1, cache.getAppendHits());
+        }
+
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length - 5));
+        try (FileHashCache cache = new FileHashCache(cacheFile, 10)) {
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        try (FileHashCache cache = new FileHashCache(cacheFile, 2)) {
+            Path one = write("one", getBytes(10));
+            Path two = write("two", getBytes(10));
+            Path three = write("three", getBytes(10));
+            cache.digest(one);
+            cache.digest(two);
+            cache.digest(one);
+            cache.digest(three);
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictions());
+            cache.digest(one);
+            assertEquals(2, cache.getHits());
+            cache.digest(two);
+            assertEquals(4, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testConcurrentSave() throws Exception {
+        final int threads = 8;
+        final Path[] files = new Path[threads];
+        for (int i = 0; i < threads; i++) {
+            files[i] = write("data" + i, getBytes(10000));
+        }
+        final FileHashCache cache = new FileHashCache(cacheFile, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final Path file = files[i];
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        cache.digest(file);
+                        cache.save();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (FileHashCache reopened = new FileHashCache(cacheFile, threads)) {
+            assertEquals(threads, reopened.size());
+            for (Path file : files) {
+                assertArrayEquals(md5(file), reopened.digest(file));
+            }
+            assertEquals(threads, reopened.getHits());
+        }
+    }
+}
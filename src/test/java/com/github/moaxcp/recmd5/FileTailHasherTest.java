@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class FileTailHasherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random();
+
+    private byte[] append(Path file, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return bytes;
+    }
+
+    private static class Published implements FileTailHasher.DigestListener {
+
+        long size = -1;
+        byte[] digest;
+
+        @Override
+        public void digested(Path file, long size, byte[] digest) {
+            this.size = size;
+            this.digest = digest;
+        }
+    }
+
+    @Test
+    public void testFollowAndResume() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("log");
+        Path journalFile = folder.getRoot().toPath().resolve("journal");
+        MessageDigest expected = MessageDigest.getInstance("md5");
+        Published published = new Published();
+
+        try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            FileTailHasher hasher = new FileTailHasher(journal, published, 1000);
+            hasher.follow(file);
+            assertEquals(0, hasher.poll());
+            expected.update(append(file, 5000));
+            assertEquals(1, hasher.poll());
+            assertEquals(5000, published.size);
+            assertArrayEquals(((MessageDigest) expected.clone()).digest(), published.digest);
+            assertEquals(0, hasher.poll());
+            expected.update(append(file, 123));
+            assertEquals(1, hasher.poll());
+            assertEquals(5123, published.size);
+            assertArrayEquals(((MessageDigest) expected.clone()).digest(), published.digest);
+        }
+
+        expected.update(append(file, 777));
+        try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            hasher.follow(file);
+            assertEquals(5123, hasher.getSize(file));
+            assertEquals(1, hasher.poll());
+            assertEquals(5900, published.size);
+            assertArrayEquals(expected.digest(), published.digest);
+        }
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("log");
+        Published published = new Published();
+        try (CheckpointJournal journal = new CheckpointJournal(folder.getRoot().toPath().resolve("journal"))) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            byte[] bytes = append(file, 1000);
+            hasher.follow(file);
+            hasher.poll();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(100);
+            }
+            assertEquals(1, hasher.poll());
+            assertEquals(100, published.size);
+            assertArrayEquals(MessageDigest.getInstance("md5").digest(Arrays.copyOf(bytes, 100)), published.digest);
+        }
+    }
+
+    @Test
+    public void testTruncateAndGrow() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("log");
+        Published published = new Published();
+        try (CheckpointJournal journal = new CheckpointJournal(folder.getRoot().toPath().resolve("journal"))) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            append(file, 1000);
+            hasher.follow(file);
+            hasher.poll();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+            }
+            byte[] bytes = append(file, 3000);
+            assertEquals(1, hasher.poll());
+            assertEquals(3000, published.size);
+            assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), published.digest);
+        }
+    }
+
+    @Test
+    public void testChangedWhileStopped() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("log");
+        Path journalFile = folder.getRoot().toPath().resolve("journal");
+        Published published = new Published();
+        try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            append(file, 1000);
+            hasher.follow(file);
+            hasher.poll();
+            Set<String> ids = journal.getStates().keySet();
+            append(file, 1000);
+            hasher.poll();
+            assertEquals(ids, journal.getStates().keySet());
+        }
+
+        byte[] bytes = new byte[3000];
+        random.nextBytes(bytes);
+        Files.write(file, bytes);
+        try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            hasher.follow(file);
+            assertEquals(2000, hasher.getSize(file));
+            assertEquals(1, hasher.poll());
+            assertEquals(3000, published.size);
+            assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), published.digest);
+            assertEquals(1, journal.getStates().size());
+        }
+
+        Files.delete(file);
+        bytes = append(file, 3000);
+        try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+            FileTailHasher hasher = new FileTailHasher(journal, published);
+            hasher.follow(file);
+            assertEquals(1, hasher.poll());
+            assertEquals(3000, published.size);
+            assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), published.digest);
+            hasher.unfollow(file);
+            assertTrue(journal.getStates().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("log");
+        final BlockingQueue<Long> sizes = new ArrayBlockingQueue<Long>(10);
+        try (CheckpointJournal journal = new CheckpointJournal(folder.getRoot().toPath().resolve("journal"))) {
+            final FileTailHasher hasher = new FileTailHasher(journal, new FileTailHasher.DigestListener() {
+                @Override
+                public void digested(Path file, long size, byte[] digest) {
+                    sizes.add(size);
+                }
+            });
+            hasher.follow(file);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        hasher.run(20);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            };
+            thread.start();
+            append(file, 10);
+            assertEquals(Long.valueOf(10), sizes.poll(10, TimeUnit.SECONDS));
+            append(file, 10);
+            assertEquals(Long.valueOf(20), sizes.poll(10, TimeUnit.SECONDS));
+            hasher.close();
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+    }
+}
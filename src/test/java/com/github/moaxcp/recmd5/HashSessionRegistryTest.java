@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class HashSessionRegistryTest {
+
+    private final Random random = new Random();
+
+    private byte[] getBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * every session is uploaded over four connections, connection k sends
+     * chunks k, k + 4, k + 8 and so on, like a client sending ranges in
+     * parallel.
+     */
+    @Test
+    public void testConcurrentOutOfOrderChunks() throws Exception {
+        final HashSessionRegistry registry = new HashSessionRegistry(8 * 1024);
+        int sessions = 8;
+        final int connections = 4;
+        final int chunk = 1000;
+        byte[][] data = new byte[sessions][];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int s = 0; s < sessions; s++) {
+            data[s] = getBytes(200000 + s * 777);
+            final byte[] bytes = data[s];
+            final HashSessionRegistry.Session session = registry.open("upload" + s);
+            for (int c = 0; c < connections; c++) {
+                final int connection = c;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int start = connection * chunk; start < bytes.length; start += connections * chunk) {
+                            session.offer(start, bytes, start, Math.min(chunk, bytes.length - start));
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+        Collections.shuffle(tasks, random);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks, 60, TimeUnit.SECONDS)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int s = 0; s < sessions; s++) {
+            HashSessionRegistry.Session session = registry.get("upload" + s);
+            assertEquals(data[s].length, session.getOffset());
+            assertEquals(0, session.getBufferedBytes());
+            assertArrayEquals(MessageDigest.getInstance("md5").digest(data[s]), registry.close("upload" + s));
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        HashSessionRegistry registry = new HashSessionRegistry(150);
+        HashSessionRegistry.Session session = registry.open("upload");
+        byte[] bytes = getBytes(400);
+        assertTrue(session.tryOffer(200, bytes, 200, 100));
+        assertFalse(session.tryOffer(100, bytes, 100, 100));
+        assertFalse(session.offer(100, bytes, 100, 100, 10, TimeUnit.MILLISECONDS));
+        assertEquals(100, session.getBufferedBytes());
+        try {
+            registry.close("upload");
+            fail("closed with missing bytes");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+        assertTrue(session.tryOffer(0, bytes, 0, 150));
+        assertEquals(150, session.getOffset());
+        assertTrue(session.tryOffer(100, bytes, 100, 100));
+        assertEquals(300, session.getOffset());
+        assertEquals(0, session.getBufferedBytes());
+        session.offer(300, bytes, 300, 100);
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), registry.close("upload"));
+        try {
+            session.tryOffer(400, bytes, 0, 1);
+            fail("offered to a closed session");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        HashSessionRegistry registry = new HashSessionRegistry(1024);
+        byte[] bytes = getBytes(3000);
+        HashSessionRegistry.Session session = registry.open("upload");
+        session.offer(0, bytes, 0, 1000);
+        MD5State checkpoint = session.getState();
+        registry.abort("upload");
+
+        session = registry.open("upload", checkpoint);
+        assertEquals(1000, session.getOffset());
+        session.offer(2000, bytes, 2000, 1000);
+        session.offer(500, bytes, 500, 1500);
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), registry.close("upload"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class MD5BatchTest {
+
+    private void testAgainstJavaMD5(byte[][] inputs) throws Exception {
+        byte[][] outputs = MD5Batch.hash(inputs);
+        MessageDigest expected = MessageDigest.getInstance("md5");
+        for (int i = 0; i < inputs.length; i++) {
+            assertArrayEquals("input " + i, expected.digest(inputs[i]), outputs[i]);
+        }
+    }
+
+    private byte[][] inputs(int count, int maxSize) {
+        Random random = new Random();
+        byte[][] inputs = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            inputs[i] = new byte[random.nextInt(maxSize + 1)];
+            random.nextBytes(inputs[i]);
+        }
+        return inputs;
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        testAgainstJavaMD5(new byte[0][]);
+    }
+
+    @Test
+    public void testEveryLength() throws Exception {
+        byte[][] inputs = new byte[200][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new byte[i];
+            new Random().nextBytes(inputs[i]);
+        }
+        testAgainstJavaMD5(inputs);
+    }
+
+    @Test
+    public void testMixedSizes() throws Exception {
+        testAgainstJavaMD5(inputs(1, 5000));
+        testAgainstJavaMD5(inputs(3, 5000));
+        testAgainstJavaMD5(inputs(101, 100000));
+    }
+}
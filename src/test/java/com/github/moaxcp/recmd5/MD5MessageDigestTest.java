@@ -24,8 +24,14 @@
 package com.github.moaxcp.recmd5;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.Random;
@@ -76,7 +82,7 @@ public class MD5MessageDigestTest {
 
         expected.update(bytes);
         String s = new BigInteger(1, expected.digest()).toString(16);
-        if (s.length() == 31) {
+        while (s.length() < 32) {
             s = "0" + s;
         }
         test.digest(bytes);
@@ -110,4 +116,163 @@ public class MD5MessageDigestTest {
     public void test1048576() {
         assertTrue(testAgainstJavaMD5(getBytes(1048576)));
     }
+
+    private byte[] javaMD5(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("md5").digest(bytes);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("could not create MessageDigest", ex);
+        }
+    }
+
+    @Test
+    public void testSingleByteUpdates() {
+        byte[] bytes = getBytes(1000);
+        MD5MessageDigest test = new MD5MessageDigest();
+        for (byte b : bytes) {
+            test.update(b);
+        }
+        assertArrayEquals(javaMD5(bytes), test.digest());
+    }
+
+    @Test
+    public void testDigestIntoBuffer() throws DigestException {
+        byte[] bytes = getBytes(1000);
+        MD5MessageDigest test = new MD5MessageDigest();
+        test.update(bytes);
+        byte[] buf = new byte[20];
+        assertEquals(16, test.digest(buf, 2, 18));
+        assertArrayEquals(javaMD5(bytes), Arrays.copyOfRange(buf, 2, 18));
+        assertEquals(16, test.getDigestLength());
+    }
+
+    @Test(expected = DigestException.class)
+    public void testDigestIntoShortBuffer() throws DigestException {
+        new MD5MessageDigest().digest(new byte[15], 0, 15);
+    }
+
+    @Test
+    public void testRepeatedDigest() {
+        byte[] bytes = getBytes(130);
+        MD5MessageDigest test = new MD5MessageDigest();
+        test.update(bytes, 0, 70);
+        assertArrayEquals(javaMD5(Arrays.copyOf(bytes, 70)), test.digest());
+        test.update(bytes, 70, 60);
+        assertArrayEquals(javaMD5(bytes), test.digest());
+        assertArrayEquals(javaMD5(bytes), test.digest());
+    }
+
+    private void testByteBuffer(ByteBuffer buffer, byte[] bytes) {
+        buffer.put(bytes);
+        buffer.flip();
+        MD5MessageDigest test = new MD5MessageDigest();
+        buffer.limit(7);
+        test.update(buffer);
+        buffer.limit(bytes.length);
+        test.update(buffer);
+        assertEquals(bytes.length, buffer.position());
+        assertArrayEquals(javaMD5(bytes), test.digest());
+    }
+
+    @Test
+    public void testDirectByteBuffer() {
+        byte[] bytes = getBytes(4099);
+        testByteBuffer(ByteBuffer.allocateDirect(bytes.length), bytes);
+        testByteBuffer(ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN), bytes);
+    }
+
+    @Test
+    public void testHeapByteBuffer() {
+        byte[] bytes = getBytes(4099);
+        testByteBuffer(ByteBuffer.allocate(bytes.length), bytes);
+    }
+
+    @Test
+    public void testRunningDigest() {
+        byte[] bytes = getBytes(200);
+        MD5MessageDigest test = new MD5MessageDigest();
+        for (int i = 0; i < bytes.length; i++) {
+            assertArrayEquals(javaMD5(Arrays.copyOf(bytes, i)), test.digest());
+            test.update(bytes[i]);
+        }
+        assertArrayEquals(javaMD5(bytes), test.digest());
+        test.reset();
+        assertArrayEquals(javaMD5(new byte[0]), test.digest());
+        test.update(bytes, 0, 100);
+        assertArrayEquals(javaMD5(Arrays.copyOf(bytes, 100)), test.digest());
+    }
+
+    @Test
+    public void testDigestHex() {
+        byte[] bytes = getBytes(1000);
+        String expected = new BigInteger(1, javaMD5(bytes)).toString(16);
+        while (expected.length() < 32) {
+            expected = "0" + expected;
+        }
+        MD5MessageDigest test = new MD5MessageDigest();
+        test.update(bytes);
+        assertEquals(expected, test.getState().toString());
+
+        char[] chars = new char[34];
+        test.digestHex(chars, 1);
+        assertEquals(expected, new String(chars, 1, 32));
+
+        byte[] ascii = new byte[32];
+        test.digestHex(ascii, 0);
+        assertEquals(expected, new String(ascii, StandardCharsets.US_ASCII));
+
+        CharBuffer buffer = CharBuffer.allocate(32);
+        test.digestHex(buffer);
+        buffer.flip();
+        assertEquals(expected, buffer.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDigestHexShortArray() {
+        new MD5MessageDigest().digestHex(new char[40], 9);
+    }
+
+    @Test
+    public void testPublishedState() throws Exception {
+        final byte[] bytes = getBytes(4 * 1048576);
+        final MD5MessageDigest digest = new MD5MessageDigest();
+        assertNull(digest.getPublishedState());
+        digest.setPublishInterval(65536);
+        assertEquals(0, digest.getPublishedState().getCount());
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < bytes.length; i += 1000) {
+                    digest.update(bytes, i, Math.min(1000, bytes.length - i));
+                }
+            }
+        };
+        writer.start();
+        long last = 0;
+        int checked = 0;
+        while (writer.isAlive() || checked == 0) {
+            MD5State published = digest.getPublishedState();
+            long count = published.getCount();
+            assertTrue(count >= last);
+            if (count > last) {
+                MessageDigest expected = MessageDigest.getInstance("md5");
+                expected.update(bytes, 0, (int) count);
+                assertArrayEquals(expected.digest(), new MD5MessageDigest(published).digest());
+                last = count;
+                checked++;
+            }
+        }
+        writer.join();
+        assertTrue(digest.getPublishedState().getCount() > bytes.length - 65536 - 1000);
+        MD5State before = digest.getPublishedState();
+        MD5MessageDigest clone = (MD5MessageDigest) digest.clone();
+        assertNull(clone.getPublishedState());
+        clone.update(bytes);
+        assertNull(clone.getPublishedState());
+        assertSame(before, digest.getPublishedState());
+        digest.reset();
+        assertEquals(0, digest.getPublishedState().getCount());
+        digest.setPublishInterval(0);
+        assertNull(digest.getPublishedState());
+    }
 }
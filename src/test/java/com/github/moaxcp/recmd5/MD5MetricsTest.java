@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Runs on its own in the metrics-test surefire execution, the only one that
+ * sets recmd5.metrics to true. The counters are only checked for growth.
+ *
+ * @author john
+ */
+public class MD5MetricsTest {
+
+    private static long sum(long[] histogram) {
+        long sum = 0;
+        for (long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testCounters() {
+        assertTrue(MD5Metrics.ENABLED);
+        MD5Metrics metrics = MD5Metrics.getInstance();
+        long bytes = metrics.getBytesHashed();
+        long blocks = metrics.getBlocksTransformed();
+        long digests = metrics.getDigestCalls();
+        long checkpoints = metrics.getStateCheckpoints();
+        long restores = metrics.getStateRestores();
+        long checkpointLatencies = sum(metrics.getCheckpointLatencyHistogram());
+
+        MD5MessageDigest digest = new MD5MessageDigest();
+        digest.update(new byte[1000]);
+        digest.update((byte) 1);
+        MD5State state = digest.getState();
+        new MD5MessageDigest(state).digest();
+
+        assertTrue(metrics.getBytesHashed() >= bytes + 1001);
+        assertTrue(metrics.getBlocksTransformed() >= blocks + 15);
+        assertTrue(metrics.getDigestCalls() >= digests + 1);
+        assertTrue(metrics.getStateCheckpoints() >= checkpoints + 1);
+        assertTrue(metrics.getStateRestores() >= restores + 1);
+        assertTrue(sum(metrics.getCheckpointLatencyHistogram()) >= checkpointLatencies + 1);
+    }
+
+    @Test
+    public void testMXBean() throws Exception {
+        MD5Metrics.getInstance();
+        ObjectName name = new ObjectName("com.github.moaxcp.recmd5:type=MD5Metrics");
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "BytesHashed"));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() {
+        boolean jfr;
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            jfr = true;
+        } catch (ClassNotFoundException ex) {
+            jfr = false;
+        }
+        assertEquals(jfr, MD5Metrics.hasEvents());
+    }
+}
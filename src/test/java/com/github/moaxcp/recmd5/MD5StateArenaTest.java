@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class MD5StateArenaTest {
+
+    private final Random random = new Random();
+
+    @Test
+    public void testInterleavedSessions() throws Exception {
+        MD5StateArena arena = new MD5StateArena(16);
+        int sessions = 40;
+        int[] handles = new int[sessions];
+        MessageDigest[] expected = new MessageDigest[sessions];
+        for (int i = 0; i < sessions; i++) {
+            handles[i] = arena.allocate();
+            expected[i] = MessageDigest.getInstance("md5");
+        }
+        assertEquals(sessions, arena.size());
+        assertEquals(48, arena.capacity());
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < sessions; i++) {
+                byte[] bytes = new byte[random.nextInt(200)];
+                random.nextBytes(bytes);
+                if (round % 2 == 0) {
+                    arena.update(handles[i], bytes, 0, bytes.length);
+                } else {
+                    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+                    direct.put(bytes).flip();
+                    arena.update(handles[i], direct);
+                }
+                expected[i].update(bytes);
+            }
+        }
+        for (int i = 0; i < sessions; i++) {
+            assertArrayEquals(expected[i].digest(), arena.digest(handles[i]));
+        }
+    }
+
+    @Test
+    public void testCheckpointAndRestore() throws Exception {
+        MD5StateArena arena = new MD5StateArena(4);
+        byte[] bytes = new byte[1000];
+        random.nextBytes(bytes);
+        int handle = arena.allocate();
+        arena.update(handle, bytes, 0, 300);
+
+        MD5MessageDigest digest = new MD5MessageDigest(arena.getState(handle));
+        ByteBuffer checkpoint = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+        arena.writeStateTo(handle, checkpoint);
+        checkpoint.flip();
+        int restored = arena.allocate(checkpoint);
+        assertEquals(300, arena.getCount(restored));
+
+        arena.update(handle, bytes, 300, 700);
+        arena.update(restored, bytes, 300, 700);
+        digest.update(bytes, 300, 700);
+        byte[] expected = MessageDigest.getInstance("md5").digest(bytes);
+        assertArrayEquals(expected, arena.digest(handle));
+        assertArrayEquals(expected, arena.digest(restored));
+        assertArrayEquals(expected, digest.digest());
+    }
+
+    @Test
+    public void testFreeReusesRecords() {
+        MD5StateArena arena = new MD5StateArena(2);
+        int first = arena.allocate();
+        arena.update(first, new byte[10], 0, 10);
+        arena.free(first);
+        assertEquals(0, arena.size());
+        try {
+            arena.getCount(first);
+            fail("freed handle was used");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        int second = arena.allocate();
+        assertEquals(first, second);
+        assertEquals(0, arena.getCount(second));
+        assertEquals(2, arena.capacity());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class MD5StateTest {
+
+    private MD5MessageDigest digest(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        MD5MessageDigest digest = new MD5MessageDigest();
+        digest.update(bytes);
+        return digest;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (int size = 0; size < 200; size++) {
+            MD5MessageDigest digest = digest(size);
+            MD5State state = digest.getState();
+            ByteBuffer buffer = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE + 3);
+            buffer.put((byte) 1);
+            state.writeTo(buffer);
+            assertEquals(1 + state.encodedSize(), buffer.position());
+            assertTrue(state.encodedSize() <= MD5State.MAX_ENCODED_SIZE);
+            buffer.flip();
+            buffer.get();
+            MD5State read = MD5State.readFrom(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(state, read);
+            assertArrayEquals(digest.digest(), new MD5MessageDigest(read).digest());
+        }
+    }
+
+    @Test
+    public void testDigestWritesState() {
+        MD5MessageDigest digest = digest(100);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MD5State.MAX_ENCODED_SIZE);
+        digest.writeStateTo(buffer);
+        buffer.flip();
+        assertArrayEquals(digest.digest(), new MD5MessageDigest(buffer).digest());
+    }
+
+    @Test
+    public void testLittleEndianDirectBuffer() {
+        MD5State state = digest(77).getState();
+        ByteBuffer heap = ByteBuffer.allocate(state.encodedSize());
+        state.writeTo(heap);
+        ByteBuffer direct = ByteBuffer.allocateDirect(state.encodedSize() + 5).order(ByteOrder.LITTLE_ENDIAN);
+        direct.position(5);
+        state.writeTo(direct);
+        assertEquals(ByteOrder.LITTLE_ENDIAN, direct.order());
+        assertEquals(direct.capacity(), direct.position());
+        direct.position(5);
+        ByteBuffer written = direct.slice();
+        heap.flip();
+        assertEquals(heap, written);
+        assertEquals(state, MD5State.readFrom(written));
+        assertFalse(written.hasRemaining());
+    }
+
+    @Test
+    public void testStateDoesNotFit() {
+        MD5State state = digest(70).getState();
+        ByteBuffer buffer = ByteBuffer.allocate(state.encodedSize() - 1);
+        try {
+            state.writeTo(buffer);
+            fail("state was written past the limit");
+        } catch (BufferOverflowException ex) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void testCorruptState() {
+        ByteBuffer buffer = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+        digest(70).writeStateTo(buffer);
+        buffer.flip();
+        buffer.put(12, (byte) (buffer.get(12) ^ 1));
+        try {
+            MD5State.readFrom(buffer);
+            fail("corrupt state was read");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testTruncatedState() {
+        ByteBuffer buffer = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+        digest(70).writeStateTo(buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        MD5State.readFrom(buffer);
+    }
+
+    /**
+     * the state after bytes 0 to 99 and a digest, serialized by the layout
+     * with int[] state, the final working copies and the hash StringBuilder.
+     */
+    private static final String ARRAY_LAYOUT = "rO0ABXNyACFjb20uZ2l0aHViLm1vYXhjcC5yZWNtZDUuTUQ1U3RhdGWe7KYBqf48UwIAB0oABWNvdW50SgAKZmluYWxDb3VudFsABmJ1ZmZlcnQAAltCWwALZmluYWxCdWZmZXJxAH4AAVsACmZpbmFsU3RhdGV0AAJbSUwABGhhc2h0ABlMamF2YS9sYW5nL1N0cmluZ0J1aWxkZXI7WwAFc3RhdGVxAH4AAnhwAAAAAAAAAGQAAAAAAAAAgHVyAAJbQqzzF/gGCFTgAgAAeHAAAABAQEFCQ0RFRkdISUpLTE1OT1BRUlNUVVZXWFlaW1xdXl9gYWJjAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAHVxAH4ABQAAAEBAQUJDREVGR0hJSktMTU5PUFFSU1RVVldYWVpbXF1eX2BhYmOAAAAAAAAAAAAAAAAAAAAAAAAAACADAAAAAAAAdXIAAltJTbpgJnbqsqUCAAB4cAAAAAQa3c56y8+khAAWem5elEIyc3IAF2phdmEubGFuZy5TdHJpbmdCdWlsZGVyPNX7FFpMassDAAB4cHcEAAAAIHVyAAJbQ7AmZrDiXYSsAgAAeHAAAAAiADcAYQBjAGUAZABkADEAYQA4ADQAYQA0AGMAZgBjAGIANgBlADcAYQAxADYAMAAwADMAMgA0ADIAOQA0ADUAZQAAAAB4dXEAfgAIAAAABJFE2crZAeTJcvxbOGJf9R4=";
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    public void testReadArrayLayout() throws Exception {
+        byte[] bytes = new byte[200];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        MD5State state = (MD5State) deserialize(Base64.getDecoder().decode(ARRAY_LAYOUT));
+        assertEquals(100, state.getCount());
+        assertEquals("7acedd1a84a4cfcb6e7a16003242945e", state.toString());
+        MD5MessageDigest digest = new MD5MessageDigest(state);
+        digest.update(bytes, 100, 100);
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), digest.digest());
+        MD5MessageDigest expected = new MD5MessageDigest();
+        expected.update(Arrays.copyOf(bytes, 100));
+        assertEquals(expected.getState(), state);
+    }
+
+    @Test
+    public void testSerializeRoundTrip() throws Exception {
+        for (int size : new int[]{0, 1, 63, 64, 100}) {
+            MD5MessageDigest digest = digest(size);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(digest.getState());
+            }
+            MD5State read = (MD5State) deserialize(bytes.toByteArray());
+            assertEquals(digest.getState(), read);
+            assertEquals(digest.getState().toString(), read.toString());
+        }
+    }
+}
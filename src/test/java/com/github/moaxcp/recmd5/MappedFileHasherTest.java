@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class MappedFileHasherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] bytes;
+    private Path file;
+
+    private void createFile(int size) throws IOException {
+        bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        file = folder.newFile("input").toPath();
+        Files.write(file, bytes);
+    }
+
+    private byte[] javaMD5() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("md5").digest(bytes);
+    }
+
+    @Test
+    public void testHash() throws Exception {
+        createFile(100000);
+        assertArrayEquals(javaMD5(), new MappedFileHasher(4096, 0, null).hash(file));
+        assertArrayEquals(javaMD5(), new MappedFileHasher().hash(file));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        createFile(0);
+        assertArrayEquals(javaMD5(), new MappedFileHasher().hash(file));
+    }
+
+    @Test
+    public void testCheckpointsAndResume() throws Exception {
+        createFile(100000);
+        final List<MD5State> states = new ArrayList<MD5State>();
+        final List<Long> offsets = new ArrayList<Long>();
+        CheckpointListener listener = new CheckpointListener() {
+            @Override
+            public void checkpoint(MD5State state, long offset) {
+                states.add(state);
+                offsets.add(offset);
+            }
+        };
+        MappedFileHasher hasher = new MappedFileHasher(30000, 10000, listener);
+        assertArrayEquals(javaMD5(), hasher.hash(file));
+        assertEquals(10, offsets.size());
+        for (int i = 0; i < offsets.size(); i++) {
+            assertEquals((i + 1) * 10000L, (long) offsets.get(i));
+            assertEquals((i + 1) * 10000L, states.get(i).getCount());
+        }
+
+        MappedFileHasher resumed = new MappedFileHasher(30000, 0, null);
+        assertArrayEquals(javaMD5(), resumed.resume(file, states.get(3), offsets.get(3)));
+    }
+}
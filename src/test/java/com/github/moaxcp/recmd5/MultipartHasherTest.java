@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class MultipartHasherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] bytes;
+    private Path file;
+
+    private void createFile(int size) throws IOException {
+        bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        file = folder.newFile("input").toPath();
+        Files.write(file, bytes);
+    }
+
+    private String expectedETag(int partSize) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("md5");
+        MessageDigest parts = MessageDigest.getInstance("md5");
+        int count = 0;
+        for (int start = 0; start < bytes.length || count == 0; start += partSize) {
+            parts.update(md5.digest(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + partSize))));
+            count++;
+        }
+        StringBuilder etag = new StringBuilder();
+        for (byte b : parts.digest()) {
+            etag.append(String.format("%02x", b));
+        }
+        return etag.append('-').append(count).toString();
+    }
+
+    @Test
+    public void testETag() throws Exception {
+        createFile(1000000);
+        assertEquals(expectedETag(65536), new MultipartHasher(65536).etag(file));
+        assertEquals(expectedETag(1000000), new MultipartHasher(1000000).etag(file));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        createFile(0);
+        assertEquals(expectedETag(1024), new MultipartHasher(1024).etag(file));
+    }
+
+    @Test
+    public void testResumeParts() throws Exception {
+        createFile(300000);
+        final Map<Integer, MD5State> checkpoints = new ConcurrentHashMap<>();
+        MultipartHasher.PartCheckpointListener listener = new MultipartHasher.PartCheckpointListener() {
+            @Override
+            public void checkpoint(int part, MD5State state, long offset) throws IOException {
+                assertEquals((part - 1) * 100000L + state.getCount(), offset);
+                if (part != 2 || state.getCount() <= 30000) {
+                    checkpoints.put(part, state);
+                }
+            }
+        };
+        MultipartHasher hasher = new MultipartHasher(100000, ForkJoinPool.commonPool(), 10000, listener);
+        byte[][] parts = hasher.hashParts(file, new HashMap<Integer, MD5State>());
+        assertEquals(30000, checkpoints.get(2).getCount());
+        assertEquals(100000, checkpoints.get(3).getCount());
+
+        MultipartHasher resumed = new MultipartHasher(100000, ForkJoinPool.commonPool(), 0, null);
+        byte[][] resumedParts = resumed.hashParts(file, checkpoints);
+        for (int i = 0; i < parts.length; i++) {
+            assertArrayEquals(parts[i], resumedParts[i]);
+        }
+        assertEquals(expectedETag(100000), MultipartHasher.etag(resumedParts));
+    }
+
+    @Test(timeout = 10000)
+    public void testIntervalWithoutListener() throws Exception {
+        createFile(300000);
+        MultipartHasher hasher = new MultipartHasher(100000, ForkJoinPool.commonPool(), 1000, null);
+        assertEquals(expectedETag(100000), hasher.etag(file));
+    }
+}
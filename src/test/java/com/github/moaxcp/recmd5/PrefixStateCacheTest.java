@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class PrefixStateCacheTest {
+
+    private final Random random = new Random();
+
+    private byte[] getBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private byte[] expected(byte[] prefix, byte[] message) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("md5");
+        md5.update(prefix);
+        return md5.digest(message);
+    }
+
+    @Test
+    public void testContentKey() throws Exception {
+        PrefixStateCache cache = new PrefixStateCache(4);
+        byte[] prefix = getBytes(1000);
+        for (int i = 0; i < 3; i++) {
+            byte[] message = getBytes(100 + i);
+            assertArrayEquals(expected(prefix, message), cache.newDigest(prefix.clone()).digest(message));
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testContentKeyCopiedOnMiss() throws Exception {
+        PrefixStateCache cache = new PrefixStateCache(4);
+        byte[] prefix = getBytes(1000);
+        byte[] message = getBytes(100);
+        byte[] lookup = prefix.clone();
+        cache.newDigest(lookup);
+        lookup[0] ^= 1;
+        assertArrayEquals(expected(prefix, message), cache.newDigest(prefix).digest(message));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testCallerKey() throws Exception {
+        PrefixStateCache cache = new PrefixStateCache(4);
+        byte[] prefix = getBytes(200);
+        byte[] message = getBytes(50);
+        assertArrayEquals(expected(prefix, message), cache.newDigest("header", prefix).digest(message));
+        assertArrayEquals(expected(prefix, message), cache.newDigest("header", null).digest(message));
+        assertEquals(200, cache.getState("header").getCount());
+        assertNull(cache.getState("other"));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        PrefixStateCache cache = new PrefixStateCache(2);
+        cache.newDigest("a", getBytes(10));
+        cache.newDigest("b", getBytes(10));
+        cache.newDigest("a", null);
+        cache.newDigest("c", getBytes(10));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.getState("b"));
+        assertNotNull(cache.getState("a"));
+        assertNotNull(cache.getState("c"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class RecMD5ProviderTest {
+
+    private byte[] getBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testGetInstance() throws Exception {
+        Security.addProvider(new RecMD5Provider());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5", RecMD5Provider.NAME);
+            assertTrue(digest instanceof RecMD5Provider.MD5Digest);
+            assertEquals("MD5", digest.getAlgorithm());
+            assertEquals(RecMD5Provider.NAME, digest.getProvider().getName());
+            assertTrue(MessageDigest.getInstance("1.2.840.113549.2.5", RecMD5Provider.NAME) instanceof RecMD5Provider.MD5Digest);
+            byte[] bytes = getBytes(1000);
+            assertArrayEquals(MessageDigest.getInstance("MD5").digest(bytes), digest.digest(bytes));
+        } finally {
+            Security.removeProvider(RecMD5Provider.NAME);
+        }
+    }
+
+    @Test
+    public void testClone() throws Exception {
+        byte[] prefix = getBytes(1000);
+        byte[] first = getBytes(100);
+        byte[] second = getBytes(30);
+        MessageDigest digest = MessageDigest.getInstance("MD5", new RecMD5Provider());
+        digest.update(prefix);
+        MessageDigest fork = (MessageDigest) digest.clone();
+        digest.update(first);
+        fork.update(second);
+
+        MessageDigest expected = MessageDigest.getInstance("MD5");
+        expected.update(prefix);
+        MessageDigest expectedFork = (MessageDigest) expected.clone();
+        expected.update(first);
+        expectedFork.update(second);
+        assertArrayEquals(expected.digest(), digest.digest());
+        assertArrayEquals(expectedFork.digest(), fork.digest());
+    }
+
+    @Test
+    public void testDigestResets() throws Exception {
+        byte[] first = getBytes(1000);
+        byte[] second = getBytes(70);
+        MessageDigest digest = MessageDigest.getInstance("MD5", new RecMD5Provider());
+        MessageDigest expected = MessageDigest.getInstance("MD5");
+        assertArrayEquals(expected.digest(first), digest.digest(first));
+        assertArrayEquals(expected.digest(second), digest.digest(second));
+        assertArrayEquals(expected.digest(), digest.digest());
+
+        byte[] out = new byte[16];
+        digest.update(first);
+        assertEquals(16, digest.digest(out, 0, 16));
+        assertArrayEquals(expected.digest(first), out);
+        assertEquals(0, ((RecMD5Provider.MD5Digest) digest).getState().getCount());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class RecoverableDigestStreamTest {
+
+    private byte[] bytes;
+    private byte[] expected;
+    private final List<MD5State> states = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+    private final CheckpointListener listener = new CheckpointListener() {
+        @Override
+        public void checkpoint(MD5State state, long offset) {
+            assertEquals(offset, state.getCount());
+            states.add(state);
+            offsets.add(offset);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        bytes = new byte[100000];
+        new Random().nextBytes(bytes);
+        expected = MessageDigest.getInstance("md5").digest(bytes);
+    }
+
+    private void read(InputStream in) throws IOException {
+        byte[] buffer = new byte[777];
+        in.read();
+        in.skip(100);
+        while (in.read(buffer) >= 0) {
+        }
+        in.close();
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+        RecoverableDigestInputStream in = new RecoverableDigestInputStream(new ByteArrayInputStream(bytes), 10000, 0, listener);
+        read(in);
+        assertArrayEquals(expected, in.getMessageDigest().digest());
+        assertEquals(bytes.length, in.getOffset());
+        assertTrue(offsets.size() >= 10);
+        assertEquals(bytes.length, (long) offsets.get(offsets.size() - 1));
+
+        int checkpoint = offsets.size() / 2;
+        long offset = offsets.get(checkpoint);
+        InputStream rest = new ByteArrayInputStream(bytes, (int) offset, bytes.length - (int) offset);
+        RecoverableDigestInputStream resumed = new RecoverableDigestInputStream(rest, states.get(checkpoint), offset, 0, 0, null);
+        read(resumed);
+        assertArrayEquals(expected, resumed.getMessageDigest().digest());
+    }
+
+    @Test
+    public void testOutputStream() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        RecoverableDigestOutputStream out = new RecoverableDigestOutputStream(sink, 8192, 0, listener);
+        out.write(bytes[0]);
+        for (int i = 1; i < 50001; i += 1000) {
+            out.write(bytes, i, 1000);
+        }
+        out.close();
+        assertEquals(6, offsets.size());
+        long offset = offsets.get(2);
+
+        RecoverableDigestOutputStream resumed = new RecoverableDigestOutputStream(sink, states.get(2), offset, 0, 0, null);
+        sink.reset();
+        sink.write(bytes, 0, (int) offset);
+        resumed.write(bytes, (int) offset, bytes.length - (int) offset);
+        resumed.close();
+        assertArrayEquals(bytes, sink.toByteArray());
+        assertArrayEquals(expected, resumed.getMessageDigest().digest());
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        WritableByteChannel channel = new RecoverableDigestChannel(Channels.newChannel(sink), 0, 0, null);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        while (direct.hasRemaining()) {
+            channel.write(direct);
+        }
+        channel.close();
+        assertArrayEquals(bytes, sink.toByteArray());
+        assertArrayEquals(expected, ((RecoverableDigestChannel) channel).getMessageDigest().digest());
+    }
+}
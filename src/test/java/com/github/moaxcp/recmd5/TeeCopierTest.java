@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class TeeCopierTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] bytes;
+    private Path source;
+    private Path destination;
+    private Path checkpoint;
+
+    @Before
+    public void setUp() throws IOException {
+        bytes = new byte[1000000];
+        new Random().nextBytes(bytes);
+        source = Files.write(folder.getRoot().toPath().resolve("source"), bytes);
+        destination = folder.getRoot().toPath().resolve("destination");
+        checkpoint = folder.getRoot().toPath().resolve("destination.checkpoint");
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        byte[] digest = new TeeCopier(4096, 65536).copy(source, destination, checkpoint);
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), digest);
+        assertArrayEquals(bytes, Files.readAllBytes(destination));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        MD5MessageDigest partial = new MD5MessageDigest();
+        partial.update(bytes, 0, 250000);
+        ByteBuffer encoded = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+        partial.writeStateTo(encoded);
+        Files.write(checkpoint, Arrays.copyOf(encoded.array(), encoded.position()));
+        byte[] written = Arrays.copyOf(bytes, 300000);
+        Arrays.fill(written, 250000, 300000, (byte) 0);
+        Files.write(destination, written);
+
+        byte[] digest = new TeeCopier(4096, 65536).copy(source, destination, checkpoint);
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), digest);
+        assertArrayEquals(bytes, Files.readAllBytes(destination));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCheckpointPastDestination() throws Exception {
+        MD5MessageDigest partial = new MD5MessageDigest();
+        partial.update(bytes, 0, 250000);
+        ByteBuffer encoded = ByteBuffer.allocate(MD5State.MAX_ENCODED_SIZE);
+        partial.writeStateTo(encoded);
+        Files.write(checkpoint, Arrays.copyOf(encoded.array(), encoded.position()));
+        Files.write(destination, Arrays.copyOf(bytes, 1000));
+        new TeeCopier(4096, 65536).copy(source, destination, checkpoint);
+    }
+
+    @Test
+    public void testChannelCheckpoints() throws Exception {
+        final List<Long> offsets = new ArrayList<Long>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CheckpointListener listener = new CheckpointListener() {
+            @Override
+            public void checkpoint(MD5State state, long offset) {
+                assertEquals(offset, state.getCount());
+                offsets.add(offset);
+            }
+        };
+        byte[] digest = new TeeCopier(10000, 300000).copy(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                Channels.newChannel(out), null, listener);
+        assertEquals(Arrays.asList(300000L, 600000L, 900000L), offsets);
+        assertArrayEquals(bytes, out.toByteArray());
+        assertArrayEquals(MessageDigest.getInstance("md5").digest(bytes), digest);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.tool;
+
+import com.github.moaxcp.recmd5.CheckpointJournal;
+import com.github.moaxcp.recmd5.MD5MessageDigest;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class BulkHasherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private Path manifest;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder("root").toPath();
+        manifest = folder.getRoot().toPath().resolve("manifest.md5");
+        Files.createDirectories(root.resolve("a/b"));
+        write("one", 10);
+        write("a/two", 100000);
+        write("a/b/three", 0);
+        write("a/b/four", 300000);
+    }
+
+    private byte[] write(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        Files.write(root.resolve(name), bytes);
+        return bytes;
+    }
+
+    private String hex(Path file) throws Exception {
+        String hex = new BigInteger(1, MessageDigest.getInstance("md5").digest(Files.readAllBytes(file))).toString(16);
+        while (hex.length() < 32) {
+            hex = "0" + hex;
+        }
+        return hex;
+    }
+
+    private void assertManifest() throws Exception {
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        for (String name : Arrays.asList("one", "a/two", "a/b/three", "a/b/four")) {
+            Path file = root.resolve(name);
+            assertTrue(name, lines.contains(hex(file) + "  " + root.relativize(file)));
+        }
+    }
+
+    @Test
+    public void testHashDirectory() throws Exception {
+        BulkHasher hasher = new BulkHasher(root, manifest, 2, 4096);
+        hasher.run();
+        assertEquals(4, hasher.getHashed());
+        assertManifest();
+
+        BulkHasher again = new BulkHasher(root, manifest, 2, 4096);
+        again.run();
+        assertEquals(0, again.getHashed());
+        assertEquals(4, again.getSkipped());
+    }
+
+    @Test
+    public void testResumeInterruptedRun() throws Exception {
+        Path four = root.resolve("a/b/four");
+        String key = root.relativize(four).toString();
+        MD5MessageDigest partial = new MD5MessageDigest();
+        partial.update(Files.readAllBytes(four), 0, 123456);
+        try (CheckpointJournal journal = new CheckpointJournal(manifest.resolveSibling("manifest.md5.journal"))) {
+            journal.append(BulkHasher.checkpointId(key, Files.readAttributes(four, BasicFileAttributes.class)), partial.getState());
+            journal.append(BulkHasher.checkpointId("one", Files.readAttributes(root.resolve("one"), BasicFileAttributes.class)), partial.getState());
+        }
+        Files.write(manifest, (hex(root.resolve("one")) + "  one\n" + "0123").getBytes(StandardCharsets.UTF_8));
+
+        BulkHasher hasher = new BulkHasher(root, manifest, 2, 4096);
+        hasher.run();
+        assertEquals(1, hasher.getSkipped());
+        assertEquals(1, hasher.getResumed());
+        assertEquals(3, hasher.getHashed());
+        assertManifest();
+        try (CheckpointJournal journal = new CheckpointJournal(manifest.resolveSibling("manifest.md5.journal"))) {
+            assertTrue(journal.getStates().isEmpty());
+        }
+    }
+
+    @Test
+    public void testStaleCheckpoint() throws Exception {
+        Path four = root.resolve("a/b/four");
+        BasicFileAttributes attrs = Files.readAttributes(four, BasicFileAttributes.class);
+        MD5MessageDigest partial = new MD5MessageDigest();
+        partial.update(Files.readAllBytes(four), 0, 123456);
+        try (CheckpointJournal journal = new CheckpointJournal(manifest.resolveSibling("manifest.md5.journal"))) {
+            journal.append(BulkHasher.checkpointId(root.relativize(four).toString(), attrs), partial.getState());
+            journal.append("gone|10|0", partial.getState());
+        }
+        byte[] bytes = Files.readAllBytes(four);
+        bytes[1000] ^= 1;
+        Files.write(four, bytes);
+        Files.setLastModifiedTime(four, FileTime.fromMillis(attrs.lastModifiedTime().toMillis() + 10000));
+
+        BulkHasher hasher = new BulkHasher(root, manifest, 2, 4096);
+        hasher.run();
+        assertEquals(0, hasher.getResumed());
+        assertEquals(4, hasher.getHashed());
+        assertManifest();
+        try (CheckpointJournal journal = new CheckpointJournal(manifest.resolveSibling("manifest.md5.journal"))) {
+            assertTrue(journal.getStates().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 john.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.github.moaxcp.recmd5.tool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author john
+ */
+public class DuplicateFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random();
+    private Path root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder("root").toPath();
+        Files.createDirectories(root.resolve("a/b"));
+        byte[] big = getBytes(100000);
+        write("big1", big);
+        write("a/big2", big);
+        byte[] sameHead = big.clone();
+        sameHead[99999] ^= 1;
+        write("a/b/big3", sameHead);
+        write("unique", getBytes(100000 - 1));
+        byte[] small = getBytes(100);
+        write("small1", small);
+        write("a/b/small2", small);
+        write("a/small3", getBytes(100));
+    }
+
+    private byte[] getBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private void write(String name, byte[] bytes) throws IOException {
+        Files.write(root.resolve(name), bytes);
+    }
+
+    private void assertGroups(SortedMap<String, List<Path>> groups) {
+        assertEquals(2, groups.size());
+        assertTrue(groups.containsValue(Arrays.asList(root.resolve("a/big2"), root.resolve("big1"))));
+        assertTrue(groups.containsValue(Arrays.asList(root.resolve("a/b/small2"), root.resolve("small1"))));
+    }
+
+    @Test
+    public void testFindDuplicates() throws Exception {
+        DuplicateFinder finder = new DuplicateFinder(root, null, 4096, 2);
+        assertGroups(finder.run());
+        assertEquals(6, finder.getHeadsHashed());
+        assertEquals(3, finder.getFullHashed());
+        assertEquals(0, finder.getFailed());
+        assertEquals(3 * 100000 + 3 * 100, finder.getBytesRead());
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        Path cache = folder.getRoot().toPath().resolve("cache");
+        DuplicateFinder first = new DuplicateFinder(root, cache, 4096, 2);
+        assertGroups(first.run());
+
+        DuplicateFinder second = new DuplicateFinder(root, cache, 4096, 2);
+        assertGroups(second.run());
+        assertEquals(0, second.getBytesRead());
+        assertEquals(9, second.getCacheHits());
+
+        byte[] big = Files.readAllBytes(root.resolve("big1"));
+        big[50000] ^= 1;
+        write("big1", big);
+        Files.setLastModifiedTime(root.resolve("big1"), FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        DuplicateFinder third = new DuplicateFinder(root, cache, 4096, 2);
+        SortedMap<String, List<Path>> groups = third.run();
+        assertEquals(1, groups.size());
+        assertEquals(100000, third.getBytesRead());
+        assertEquals(1, third.getHeadsHashed());
+        assertEquals(1, third.getFullHashed());
+    }
+
+    @Test
+    public void testCacheInsideDirectory() throws Exception {
+        Path cache = root.resolve("cache");
+        write("cache.copy", Files.readAllBytes(root.resolve("small1")));
+        new DuplicateFinder(root, cache, 4096, 2).run();
+        assertTrue(Files.exists(cache));
+
+        DuplicateFinder finder = new DuplicateFinder(root, cache, 4096, 2);
+        SortedMap<String, List<Path>> groups = finder.run();
+        assertEquals(2, groups.size());
+        assertTrue(groups.containsValue(Arrays.asList(root.resolve("a/big2"), root.resolve("big1"))));
+        assertTrue(groups.containsValue(Arrays.asList(root.resolve("a/b/small2"), root.resolve("cache.copy"), root.resolve("small1"))));
+        assertEquals(0, finder.getBytesRead());
+    }
+}